@@ -0,0 +1,64 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import dev.jenniferwadin.beanpeek.framework.BeanContainer;
+import dev.jenniferwadin.beanpeek.framework.DependencyGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures BeanContainer.getBean by concrete class (a direct map hit) and by
+ * interface (a type index lookup).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanLookupBenchmark {
+
+    public interface Repository {
+    }
+
+    @MiniService
+    public static class JdbcRepository implements Repository {
+    }
+
+    @MiniService
+    public static class OrderService {
+        public OrderService(JdbcRepository repository) {
+        }
+    }
+
+    private BeanContainer container;
+
+    @Setup
+    public void registerBeans() {
+        container = new BeanContainer();
+        DependencyGraph graph = new DependencyGraph(List.of(JdbcRepository.class, OrderService.class),
+                container.getRegisteredBeanClasses());
+        container.registerBeans(graph.getCreationOrder());
+    }
+
+    @Benchmark
+    public Object byConcreteClass() {
+        return container.getBean(JdbcRepository.class);
+    }
+
+    @Benchmark
+    public Object byInterface() {
+        return container.getBean(Repository.class);
+    }
+}
@@ -0,0 +1,88 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import dev.jenniferwadin.beanpeek.framework.BeanContainer;
+import dev.jenniferwadin.beanpeek.framework.BeanDefinition;
+import dev.jenniferwadin.beanpeek.framework.DependencyGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a per-tenant child container costs on top of a parent with the shared beans:
+ * creating an empty child, and creating one, registering two tenant beans from a creation
+ * order resolved once, and closing it again.
+ * Run with "-prof gc" for the bytes allocated per child (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChildContainerBenchmark {
+
+    @MiniService
+    public static class DataSource {
+    }
+
+    @MiniService
+    public static class MetricsRegistry {
+    }
+
+    @MiniService
+    public static class TenantRepository {
+        public TenantRepository(DataSource dataSource) {
+        }
+    }
+
+    @MiniService
+    public static class TenantService {
+        public TenantService(TenantRepository repository, MetricsRegistry metrics) {
+        }
+    }
+
+    private BeanContainer parent;
+    private List<BeanDefinition> tenantPlan;
+
+    @Setup(Level.Trial)
+    public void registerSharedBeans() {
+        parent = new BeanContainer();
+        parent.registerBeans(new DependencyGraph(List.of(DataSource.class, MetricsRegistry.class),
+                parent.getRegisteredBeanClasses()).getCreationOrder());
+        tenantPlan = new DependencyGraph(List.of(TenantRepository.class, TenantService.class),
+                parent.getRegisteredBeanClasses()).getCreationOrder();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        parent.shutdown();
+    }
+
+    @Benchmark
+    public BeanContainer createEmptyChild() {
+        BeanContainer child = parent.createChild();
+        child.close();
+        return child;
+    }
+
+    @Benchmark
+    public Object createTenantChild() {
+        try (BeanContainer child = parent.createChild()) {
+            child.registerBeans(tenantPlan);
+            return child.getBean(TenantService.class);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.BeanpeekApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a cold start: a new JVM that starts BeanpeekApplication in training mode
+ * (scan, create the beans and their proxies, shut down) and exits.
+ * - off: no class data sharing at all.
+ * - jdk: the JDK's default CDS archive, which covers JDK classes only.
+ * - appcds: the archive written by "mvn -Pappcds package", which also covers the
+ *   application's and its dependencies' classes.
+ * Needs the packaged jar and target/appcds, so run it as
+ * "mvn -Pappcds,benchmarks verify -Djmh.args=ColdStart".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ColdStartBenchmark {
+
+    @Param({"off", "jdk", "appcds"})
+    public String sharing;
+
+    private List<String> command;
+
+    @Setup
+    public void buildCommand() throws IOException {
+        Path appcds = Path.of("target", "appcds");
+        Path archive = appcds.resolve("beanpeek.jsa");
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException(archive + " not found; build it with mvn -Pappcds package");
+        }
+        Path jar;
+        try (var jars = Files.list(Path.of("target"))) {
+            jar = jars.filter(path -> path.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in target; run mvn package first"));
+        }
+        String dependencies = Files.readString(appcds.resolve("classpath")).strip();
+
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        switch (sharing) {
+            case "off" -> command.add("-Xshare:off");
+            // Fails instead of silently starting without the archive, e.g. when the jar changed since
+            case "appcds" -> command.addAll(List.of("-Xshare:on", "-XX:SharedArchiveFile=" + archive.toAbsolutePath()));
+            default -> {
+            }
+        }
+        command.add("-classpath");
+        command.add(jar.toAbsolutePath() + (dependencies.isEmpty() ? "" : File.pathSeparator + dependencies));
+        command.add(BeanpeekApplication.class.getName());
+        command.add(BeanpeekApplication.TRAINING);
+    }
+
+    @Benchmark
+    public int startAndShutdown() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Application exited with " + exitCode + ": " + command);
+        }
+        return exitCode;
+    }
+}
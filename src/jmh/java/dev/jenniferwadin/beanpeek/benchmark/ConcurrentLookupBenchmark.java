@@ -0,0 +1,74 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import dev.jenniferwadin.beanpeek.framework.BeanContainer;
+import dev.jenniferwadin.beanpeek.framework.DependencyGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how getBean by interface scales with the number of threads looking up
+ * the same bean. Lookups take no lock, so the throughput of 2, 4 and 8 threads should
+ * be close to 2, 4 and 8 times that of one thread, as long as there are that many
+ * cores to run them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentLookupBenchmark {
+
+    public interface Clock {
+    }
+
+    @MiniService
+    public static class SystemClock implements Clock {
+    }
+
+    private BeanContainer container;
+
+    @Setup
+    public void registerBeans() {
+        container = new BeanContainer();
+        container.registerBeans(new DependencyGraph(List.of(SystemClock.class),
+                container.getRegisteredBeanClasses()).getCreationOrder());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object oneThread() {
+        return container.getBean(Clock.class);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Object twoThreads() {
+        return container.getBean(Clock.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object fourThreads() {
+        return container.getBean(Clock.class);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object eightThreads() {
+        return container.getBean(Clock.class);
+    }
+}
@@ -0,0 +1,99 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniConfigProperty;
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import dev.jenniferwadin.beanpeek.framework.CompiledBeanFactory;
+import dev.jenniferwadin.beanpeek.framework.MiniConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating a bean with config injection and a post-construct method through
+ * CompiledBeanFactory with the reflective path the container used before:
+ * Constructor.newInstance, a scan of the declared fields and methods, Field.set for
+ * every @MiniConfigProperty and Method.invoke for every @MiniPostConstruct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class ConfigInjectionBenchmark {
+
+    public static class Repository {
+    }
+
+    public static class Service {
+        private final Repository repository;
+        private int initialized;
+
+        @MiniConfigProperty("application.name")
+        private String applicationName;
+
+        @MiniConfigProperty("welcome.message")
+        private String welcomeMessage;
+
+        public Service(Repository repository) {
+            this.repository = repository;
+        }
+
+        @MiniPostConstruct
+        void init() {
+            initialized++;
+        }
+    }
+
+    private MiniConfiguration config;
+    private Constructor<?> constructor;
+    private Object[] dependencies;
+    private CompiledBeanFactory compiled;
+
+    @Setup
+    public void compileFactory() throws NoSuchMethodException {
+        config = new MiniConfiguration();
+        constructor = Service.class.getDeclaredConstructor(Repository.class);
+        constructor.setAccessible(true);
+        dependencies = new Object[]{new Repository()};
+        compiled = CompiledBeanFactory.compile(Service.class, constructor, config);
+    }
+
+    @Benchmark
+    public Object compiled() {
+        return compiled.create(dependencies);
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        Object instance = constructor.newInstance(dependencies);
+        Class<?> clazz = instance.getClass();
+
+        for (Field field : clazz.getDeclaredFields()) {
+            MiniConfigProperty property = field.getAnnotation(MiniConfigProperty.class);
+            if (property != null) {
+                field.setAccessible(true);
+                field.set(instance, config.get(property.value()));
+            }
+        }
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(MiniPostConstruct.class)) {
+                method.setAccessible(true);
+                method.invoke(instance);
+            }
+        }
+        return instance;
+    }
+}
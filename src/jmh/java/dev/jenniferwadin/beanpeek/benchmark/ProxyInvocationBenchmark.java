@@ -0,0 +1,73 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
+import dev.jenniferwadin.beanpeek.framework.ProxyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calling a MathMiniService-style method (primitive arguments and result)
+ * directly with calling it through a JDK proxy and through a class-based proxy.
+ * The method is timed (@LogExecutionTime) but not logged, so the proxied calls
+ * measure the interceptor chain plus the histogram update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyInvocationBenchmark {
+
+    public interface Calculator {
+        int add(int a, int b);
+    }
+
+    public static class TimedCalculator implements Calculator {
+        @Override
+        @LogExecutionTime(sampleRate = 0.0)
+        public int add(int a, int b) {
+            return a + b;
+        }
+    }
+
+    private Calculator direct;
+    private Calculator jdkProxy;
+    private Calculator classProxy;
+    private int a = 2;
+    private int b = 3;
+
+    @Setup
+    public void createProxies() {
+        direct = new TimedCalculator();
+        jdkProxy = (Calculator) new ProxyFactory()
+                .createProxyIfNeeded(TimedCalculator.class, new TimedCalculator());
+        classProxy = (Calculator) new ProxyFactory(ProxyFactory.ProxyMode.CLASS)
+                .createProxyIfNeeded(TimedCalculator.class, new TimedCalculator());
+    }
+
+    @Benchmark
+    public int directCall() {
+        return direct.add(a, b);
+    }
+
+    @Benchmark
+    public int jdkProxyCall() {
+        return jdkProxy.add(a, b);
+    }
+
+    @Benchmark
+    public int classProxyCall() {
+        return classProxy.add(a, b);
+    }
+}
@@ -0,0 +1,131 @@
+package dev.jenniferwadin.beanpeek.benchmark;
+
+import dev.jenniferwadin.beanpeek.framework.BeanContainer;
+import dev.jenniferwadin.beanpeek.framework.BeanScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures BeanScanner.scanAndRegister over a generated package of beans.
+ * The beans form dependency chains of up to CHAIN_LENGTH beans (Bean1 needs Bean0,
+ * Bean2 needs Bean1, ...), so the dependency graph is deep rather than flat.
+ * The package is generated and compiled once per trial, either with the @MiniService
+ * index (INDEX) or without it, so the scanner reads class files (CLASSPATH).
+ * Classes stay loaded between invocations: this measures discovery, dependency
+ * resolution and bean creation, not class loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanAndRegisterBenchmark {
+
+    private static final int CHAIN_LENGTH = 100;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int beanCount;
+
+    @Param({"INDEX", "CLASSPATH"})
+    public String discovery;
+
+    private Path directory;
+    private URLClassLoader classLoader;
+    private String basePackage;
+
+    @Setup(Level.Trial)
+    public void generateBeans() throws IOException {
+        basePackage = "generated.beans" + beanCount;
+        directory = Files.createTempDirectory("beanpeek-benchmark");
+        Path packageDirectory = directory.resolve(basePackage.replace('.', '/'));
+        Files.createDirectories(packageDirectory);
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "-d", directory.toString(),
+                "-classpath", System.getProperty("java.class.path")));
+        if (discovery.equals("INDEX")) {
+            arguments.addAll(List.of("-processor", "dev.jenniferwadin.beanpeek.processor.MiniServiceIndexProcessor"));
+        } else {
+            arguments.add("-proc:none");
+        }
+
+        for (int i = 0; i < beanCount; i++) {
+            String dependency = i % CHAIN_LENGTH == 0 ? "" : "Bean" + (i - 1) + " dependency";
+            Path source = packageDirectory.resolve("Bean" + i + ".java");
+            Files.writeString(source, """
+                    package %s;
+
+                    @dev.jenniferwadin.beanpeek.annotation.MiniService
+                    public class Bean%d {
+                        public Bean%d(%s) {
+                        }
+                    }
+                    """.formatted(basePackage, i, i, dependency));
+            arguments.add(source.toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, arguments.toArray(String[]::new)) != 0) {
+            throw new IllegalStateException("Could not compile the generated beans");
+        }
+        classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteBeans() throws IOException {
+        classLoader.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Each container is shut down again, so its executor and config watcher do not pile up
+     * across invocations; the shutdown is part of the measured time.
+     */
+    @Benchmark
+    public int scanAndRegister() {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        BeanContainer container = new BeanContainer();
+        try {
+            new BeanScanner(container).scanAndRegister(basePackage);
+            int registered = container.getRegisteredBeanClasses().size();
+            if (registered != beanCount) {
+                throw new IllegalStateException("Registered " + registered + " of " + beanCount + " beans");
+            }
+            return registered;
+        } finally {
+            container.shutdown();
+            thread.setContextClassLoader(previous);
+        }
+    }
+}
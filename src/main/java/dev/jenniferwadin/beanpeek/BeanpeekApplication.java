@@ -7,14 +7,28 @@ import dev.jenniferwadin.beanpeek.framework.BeanScanner;
 import dev.jenniferwadin.beanpeek.miniservice.HelloMiniService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
 @Slf4j
 public class BeanpeekApplication {
 
+	/**
+	 * Runs startup (scan, bean creation, proxies) and shutdown once, then exits.
+	 * The appcds profile starts the application this way with -XX:ArchiveClassesAtExit,
+	 * so the archive holds every class a start loads; the slow demo calls are left out.
+	 */
+	public static final String TRAINING = "--training";
+
 	public static void main(String[] args) throws NoSuchMethodException {
+		boolean training = Arrays.asList(args).contains(TRAINING);
 
 		BeanContainer beanContainer = new BeanContainer();
 		BeanScanner beanScanner = new BeanScanner(beanContainer);
-		beanScanner.scanAndRegister("dev.jenniferwadin.beanpeek.examples");
+		beanScanner.scanAndRegister("dev.jenniferwadin.beanpeek.miniservice");
+		log.info("Startup report: {}", beanContainer.getStartupReport());
 
 		HelloMiniService helloMiniService = beanContainer.getBean(HelloMiniService.class);
 		helloMiniService.sayHi();
@@ -22,9 +36,21 @@ public class BeanpeekApplication {
 		GreetingMiniService greetingMiniService = beanContainer.getBean(GreetingMiniService.class);
 		greetingMiniService.greet();
 
+		if (training) {
+			beanContainer.awaitReady();
+			beanContainer.shutdown();
+			return;
+		}
+
 		MathMiniService mathMiniService = beanContainer.getBean(MathMiniService.class);
 		int result = mathMiniService.slowAddition(2,3);
 		log.info("Result: {}", result);
+		// Ten slow additions on virtual threads take about as long as one
+		List<CompletableFuture<Integer>> sums = IntStream.range(0, 10)
+				.mapToObj(i -> mathMiniService.slowAdditionAsync(i, i))
+				.toList();
+		log.info("Async results: {}", sums.stream().map(CompletableFuture::join).toList());
+		beanContainer.getTimingSnapshots().forEach((method, timing) -> log.info("{}: {}", method, timing));
 
 		beanContainer.registerShutdownHook();
 	}
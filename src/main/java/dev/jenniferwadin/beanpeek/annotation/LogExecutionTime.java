@@ -7,9 +7,29 @@ import java.lang.annotation.Target;
 
 /**
  * Marks that a method's execution time should be measured and logged.
+ * Every call is recorded in a latency histogram for the method; the statistics
+ * are available from BeanContainer.getTimingSnapshots().
+ * Calls are also logged, by a background thread, so the caller never waits for the
+ * log appender. The attributes below choose which calls are logged.
  * This annotation should be used on methods inside beans registered via @MiniService.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface LogExecutionTime {
+
+    /**
+     * Only calls that take at least this long are logged. 0 logs every call.
+     */
+    long slowThresholdMillis() default 0;
+
+    /**
+     * The fraction of (slow enough) calls that are logged, from 0.0 (none) to 1.0 (all).
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * Whether the log line includes the call's arguments.
+     * This boxes the arguments on every call, so leave it off for hot methods.
+     */
+    boolean includeArguments() default false;
 }
@@ -0,0 +1,23 @@
+package dev.jenniferwadin.beanpeek.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a method on a virtual thread of the container, so the caller does not wait for it.
+ * Similar to Spring's @Async.
+ * - A method returning CompletableFuture (or CompletionStage or Future) returns at once;
+ *   the returned future completes with the result of the future the method returned,
+ *   or fails with what the method threw. Returning CompletableFuture.completedFuture(value)
+ *   from a blocking method is the usual way to write it.
+ * - A void method is fire-and-forget; failures are logged.
+ * How many calls of one bean run at the same time is capped (see the
+ * "beanpeek.async.max-concurrency" properties); further calls wait for a free slot.
+ * This annotation should be used on methods inside beans registered via @MiniService.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MiniAsync {
+}
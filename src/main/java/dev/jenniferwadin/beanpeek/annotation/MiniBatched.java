@@ -0,0 +1,41 @@
+package dev.jenniferwadin.beanpeek.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collapses concurrent calls of a single-key method into calls of a batch method.
+ * The annotated method takes one key, e.g. {@code User find(long id)}. Calls made at
+ * about the same time are collected, and the batch method named here is called once
+ * with all their (distinct) keys, e.g. {@code Map<Long, User> findAll(List<Long> ids)}.
+ * Every caller then gets the result for its own key.
+ * The batch method takes a List, Set or Collection of keys, and returns either a Map
+ * from key to result (a missing key gives null), or a List of results in key order.
+ * If it throws, every call of the batch fails with that exception.
+ * The annotated method itself is never called, and interceptors added with
+ * BeanContainer.addInterceptor (or through ServiceLoader) do not apply to batched calls.
+ * Batch statistics are available from BeanContainer.getBatchStats(), keyed "ClassName.methodName",
+ * over all instances of the bean.
+ * This annotation should be used on methods inside beans registered via @MiniService.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MiniBatched {
+
+    /**
+     * The name of the batch method on the same bean.
+     */
+    String batchMethod();
+
+    /**
+     * A batch is sent at the latest this long after its first call.
+     */
+    long windowMillis() default 2;
+
+    /**
+     * A batch is sent at once when it has this many calls.
+     */
+    int maxBatchSize() default 100;
+}
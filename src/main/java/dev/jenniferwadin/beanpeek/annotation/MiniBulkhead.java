@@ -0,0 +1,47 @@
+package dev.jenniferwadin.beanpeek.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caps how many calls of a method run at the same time, so a slow downstream service
+ * holds up only the calls that need it, not every thread of the process.
+ * Calls over the limit wait in a bounded queue, or fail at once with a
+ * RejectedExecutionException if the queue is full (or has size 0) or the wait times out.
+ * In adaptive mode the limit follows the observed latency (see BulkheadLimiter):
+ * it grows while latency stays near the lowest seen, and shrinks when calls start
+ * queueing up downstream or fail.
+ * In-flight calls, rejections and the current limit are available from
+ * BeanContainer.getBulkheadStats(), keyed "ClassName.methodName".
+ * This annotation should be used on methods inside beans registered via @MiniService.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MiniBulkhead {
+
+    /**
+     * The limit of concurrent calls; in adaptive mode, the initial limit.
+     */
+    int maxConcurrent() default 10;
+
+    /**
+     * How many calls may wait for a free slot. 0 rejects calls over the limit at once.
+     */
+    int queueSize() default 0;
+
+    /**
+     * How long a queued call waits for a slot before it is rejected.
+     */
+    long maxWaitMillis() default 100;
+
+    /**
+     * Whether the limit adapts to the observed latency, between minLimit and maxLimit.
+     */
+    boolean adaptive() default false;
+
+    int minLimit() default 1;
+
+    int maxLimit() default 200;
+}
@@ -0,0 +1,33 @@
+package dev.jenniferwadin.beanpeek.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the results of a method, keyed by its arguments (compared with equals).
+ * Intended for pure lookups: a call with arguments seen before returns the cached
+ * result without running the method. Null results and exceptions are not cached.
+ * Concurrent calls with the same arguments run the method only once; the others
+ * wait for its result.
+ * Statistics and invalidation are available from BeanContainer (getCacheStats,
+ * invalidateCache), keyed "ClassName.methodName".
+ * This annotation should be used on methods inside beans registered via @MiniService.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MiniCacheable {
+
+    /**
+     * The maximum number of cached results. When it is reached, the results least
+     * likely to be used again are evicted, judged by how often and how recently
+     * their arguments were asked for.
+     */
+    int maximumSize() default 1000;
+
+    /**
+     * How long a result stays valid after it was computed. 0 keeps it until evicted.
+     */
+    long ttlMillis() default 0;
+}
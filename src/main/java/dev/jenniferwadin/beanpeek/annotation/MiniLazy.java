@@ -0,0 +1,21 @@
+package dev.jenniferwadin.beanpeek.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Defers creating a singleton @MiniService until it is first used.
+ * The container registers (and injects) a lightweight class-based proxy instead,
+ * and builds the real bean, including its @MiniPostConstruct methods, on the
+ * first method call.
+ * With the property "beanpeek.lazy.default=true" every singleton is lazy, and
+ * {@code @MiniLazy(false)} keeps a bean eager.
+ * Similar to Spring's @Lazy.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MiniLazy {
+    boolean value() default true;
+}
@@ -8,8 +8,18 @@ import java.lang.annotation.Target;
 /**
  * Marks a method to be executed after a Bean has been constructed.
  * Similar to Java's @PostConstruct.
+ * A method that returns a CompletionStage, or is marked async, initializes the bean
+ * asynchronously: the bean is registered right away, and only beans that depend on it
+ * wait for the initialization (see BeanContainer.awaitReady).
+ * An exception thrown by a synchronous method is logged, and the bean is registered
+ * anyway; an asynchronous one fails the initialization of the bean instead.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface MiniPostConstruct {
+
+    /**
+     * Runs the method on its own (virtual) thread instead of during bean creation.
+     */
+    boolean async() default false;
 }
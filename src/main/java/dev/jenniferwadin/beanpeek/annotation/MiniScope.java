@@ -0,0 +1,43 @@
+package dev.jenniferwadin.beanpeek.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets how many instances the BeanContainer creates of a @MiniService.
+ * Beans without this annotation are singletons.
+ * Similar to Spring's @Scope.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MiniScope {
+
+    Scope value();
+
+    /**
+     * For POOLED beans: the maximum number of instances that exist at the same time.
+     */
+    int poolSize() default 8;
+
+    /**
+     * For POOLED beans: how long borrowing waits for an instance when all of them are in use.
+     */
+    long maxWaitMillis() default 1000;
+
+    enum Scope {
+        /**
+         * One shared instance (the default).
+         */
+        SINGLETON,
+        /**
+         * A new instance for every getBean call and every injection.
+         */
+        PROTOTYPE,
+        /**
+         * Instances are borrowed from and returned to a bounded pool.
+         */
+        POOLED
+    }
+}
@@ -0,0 +1,167 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniAsync;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs methods annotated with @MiniAsync on virtual threads.
+ * Every call gets its own virtual thread from one executor per container. Before the
+ * method runs, the thread takes a permit from its bean's semaphore, so at most
+ * maxConcurrency calls of a bean run at once; the others park on the semaphore,
+ * which costs a virtual thread nothing but memory.
+ * The rest of the chain (other interceptors included) runs on the virtual thread,
+ * so @LogExecutionTime measures the method itself, not the hand-off.
+ */
+@Slf4j
+public class AsyncInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle SUBMIT;
+
+    static {
+        try {
+            SUBMIT = MethodHandles.lookup().findVirtual(AsyncMethod.class, "submit",
+                    MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The per-method state bound into an async method's chain.
+     *
+     * @param permits the bean's semaphore, or null if its calls are not capped
+     * @param next    the rest of the chain, as (Object[])Object
+     */
+    private record AsyncMethod(String name, ExecutorService executor, Semaphore permits, MethodHandle next,
+                               boolean returnsFuture) {
+
+        /**
+         * @return the future of the call's result, or null for a void method
+         */
+        Object submit(Object[] arguments) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            try {
+                executor.execute(() -> run(arguments, result));
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(new IllegalStateException("Container is shut down, " + name + " not run", e));
+            }
+            if (returnsFuture) return result;
+            result.whenComplete((value, failure) -> {
+                if (failure != null) log.error("MiniAsync method {} failed: {}", name, failure.toString());
+            });
+            return null;
+        }
+
+        private void run(Object[] arguments, CompletableFuture<Object> result) {
+            try {
+                if (permits != null) permits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                Object value = next.invokeExact(arguments);
+                if (value instanceof CompletionStage<?> stage) {
+                    stage.whenComplete((completed, failure) -> {
+                        if (failure != null) result.completeExceptionally(failure);
+                        else result.complete(completed);
+                    });
+                } else if (value instanceof Future<?> future) {
+                    result.complete(future.get());
+                } else {
+                    result.complete(value);
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                if (permits != null) permits.release();
+            }
+        }
+    }
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("beanpeek-async-", 0).factory());
+    private final Map<Class<?>, Semaphore> permits = new ConcurrentHashMap<>();
+    private final ToIntFunction<Class<?>> maxConcurrency;
+
+    /**
+     * Creates an interceptor without a concurrency cap.
+     */
+    public AsyncInterceptor() {
+        this(beanClass -> 0);
+    }
+
+    /**
+     * @param maxConcurrency how many calls of a bean class may run at once; 0 or less for no cap
+     */
+    public AsyncInterceptor(ToIntFunction<Class<?>> maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public boolean appliesTo(Method method) {
+        if (!method.isAnnotationPresent(MiniAsync.class)) return false;
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class
+                || returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class)) return true;
+        log.warn("@MiniAsync on {}.{} is ignored: it must return void, CompletableFuture, CompletionStage or Future",
+                method.getDeclaringClass().getSimpleName(), method.getName());
+        return false;
+    }
+
+    /**
+     * Without the bean class, the cap is that of the class declaring the method.
+     */
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle next) {
+        return intercept(method.getDeclaringClass(), method, next, other -> null);
+    }
+
+    @Override
+    public MethodHandle intercept(Class<?> beanClass, Method method, MethodHandle next,
+                                 Function<Method, MethodHandle> targetMethods) {
+        int limit = maxConcurrency.applyAsInt(beanClass);
+        // One semaphore per bean class, shared by all its async methods, inherited ones included
+        Semaphore beanPermits = limit > 0 ? permits.computeIfAbsent(beanClass, clazz -> new Semaphore(limit)) : null;
+        AsyncMethod async = new AsyncMethod(beanClass.getSimpleName() + "." + method.getName(), executor, beanPermits,
+                MethodHandleChains.spread(next), method.getReturnType() != void.class);
+        return SUBMIT.bindTo(async)
+                .asCollector(Object[].class, method.getParameterCount())
+                .asType(next.type());
+    }
+
+    /**
+     * Stops accepting calls and waits for the running ones; calls still running after
+     * the timeout are interrupted. Calls made afterwards fail with an IllegalStateException.
+     *
+     * @return true if every call finished within the timeout
+     */
+    public boolean close(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Interrupting MiniAsync calls still running after {} ms", timeoutMillis);
+        executor.shutdownNow();
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the log lines of @LogExecutionTime calls on a background thread.
+ * Calling threads only publish an event into a bounded ring buffer:
+ * - The buffer is a fixed array of preallocated events with a sequence number per slot
+ *   (a bounded multi-producer queue in the style of Vyukov's). A producer claims a slot
+ *   with one compare-and-set on the tail, fills in the event and publishes it by
+ *   advancing the slot's sequence. Nothing is allocated per event.
+ * - If the buffer is full, the event is dropped and counted; the caller never blocks.
+ * - A single daemon thread, started on the first event, formats and logs the events
+ *   and reports drops. When the buffer is empty it parks for a short while.
+ */
+@Slf4j
+class AsyncTimingLog {
+
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    /**
+     * A slot of the ring buffer; reused for every event that passes through it.
+     */
+    private static final class Event {
+        String method;
+        long durationNanos;
+        Object[] arguments;
+    }
+
+    private final Event[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final LongAdder dropped = new LongAdder();
+    private long droppedReported;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile Thread writer;
+
+    /**
+     * @param capacity the number of events the buffer holds, rounded up to a power of two
+     */
+    AsyncTimingLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.events = new Event[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Hands an event to the background thread, or drops it if the buffer is full.
+     *
+     * @param arguments the call's arguments, or null to log without them
+     * @return true if the event was queued, false if it was dropped
+     */
+    boolean offer(String method, long durationNanos, Object[] arguments) {
+        if (!started.get()) start();
+
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+                position = tail.get();
+            } else if (available < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        Event event = events[(int) position & mask];
+        event.method = method;
+        event.durationNanos = durationNanos;
+        event.arguments = arguments;
+        sequences.set((int) position & mask, position + 1);
+        return true;
+    }
+
+    /**
+     * @return the number of events dropped because the buffer was full
+     */
+    long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes the queued events and stops the background thread.
+     */
+    void close() {
+        closed = true;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::run, "beanpeek-timing-log");
+            thread.setDaemon(true);
+            writer = thread;
+            thread.start();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean wrote = drain();
+            reportDrops();
+            if (closed) {
+                drain();
+                return;
+            }
+            if (!wrote) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Writes every published event. Only called by the background thread.
+     *
+     * @return whether there was anything to write
+     */
+    private boolean drain() {
+        boolean wrote = false;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) return wrote;
+
+            Event event = events[index];
+            write(event);
+            event.method = null;
+            event.arguments = null;
+            sequences.set(index, head + events.length);
+            head++;
+            wrote = true;
+        }
+    }
+
+    private static void write(Event event) {
+        String duration = String.format("%.3f", event.durationNanos / 1_000_000.0);
+        if (event.arguments == null) {
+            log.info("{} took {} ms", event.method, duration);
+        } else {
+            String arguments = Arrays.deepToString(event.arguments);
+            log.info("{}({}) took {} ms", event.method, arguments.substring(1, arguments.length() - 1), duration);
+        }
+    }
+
+    private void reportDrops() {
+        long total = dropped.sum();
+        if (total != droppedReported) {
+            log.warn("Dropped {} timing log events because the buffer was full ({} in total)", total - droppedReported, total);
+            droppedReported = total;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniBatched;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent calls of methods annotated with @MiniBatched into batch calls.
+ * Every proxied instance of a batched method's bean has its own RequestBatcher; the
+ * statistics are kept per method, over all instances (see MethodNames for how they
+ * are named).
+ * The batch method is found on the bean class when the proxy is created, and called
+ * directly on the target (not through its own interceptors). One daemon thread runs
+ * the batch windows of all methods; the batches themselves run on the callers'
+ * threads or on virtual threads.
+ * A batched call ends the chain: it does not call next, so the annotated method itself
+ * never runs, and neither do interceptors that come after this one (those registered
+ * with addInterceptor or through ServiceLoader). Interceptors before it, such as the
+ * cache, wrap the batched call as usual.
+ */
+@Slf4j
+public class BatchInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle GET;
+
+    static {
+        try {
+            GET = MethodHandles.lookup().findVirtual(RequestBatcher.class, "get",
+                    MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<Method, RequestBatcher.Counters> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "beanpeek-batch-window");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public boolean appliesTo(Method method) {
+        return method.isAnnotationPresent(MiniBatched.class);
+    }
+
+    /**
+     * Without the other methods of the bean the batch method cannot be called, so the
+     * calls are not batched: returns next unchanged. ProxyFactory calls the other overload.
+     */
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle next) {
+        log.warn("@MiniBatched {} is not batched: the batch method of the bean is not available", MethodNames.shortName(method));
+        return next;
+    }
+
+    /**
+     * @throws IllegalStateException if the method does not take exactly one key, or the
+     *                               bean has no suitable batch method
+     */
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle next, Function<Method, MethodHandle> targetMethods) {
+        String name = MethodNames.shortName(method);
+        MiniBatched settings = method.getAnnotation(MiniBatched.class);
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException("@MiniBatched " + name + " must take exactly one key");
+        }
+        Method batchMethod = findBatchMethod(method, settings.batchMethod());
+        MethodHandle batch = targetMethods.apply(batchMethod)
+                .asType(MethodType.methodType(Object.class, Object.class));
+        boolean setOfKeys = batchMethod.getParameterTypes()[0] == Set.class;
+        boolean listOfResults = List.class.isAssignableFrom(batchMethod.getReturnType());
+
+        RequestBatcher<Object, Object> batcher = new RequestBatcher<>(name,
+                keys -> results(name, keys, batch.invokeExact((Object) (setOfKeys ? new LinkedHashSet<>(keys) : keys)), listOfResults),
+                settings.windowMillis(), settings.maxBatchSize(), scheduler,
+                counters.computeIfAbsent(method, key -> new RequestBatcher.Counters()));
+        return GET.bindTo(batcher).asType(next.type());
+    }
+
+    /**
+     * @return the statistics of every batched method, over all its instances, sorted by name
+     */
+    public Map<String, BatchStats> getStats() {
+        return MethodNames.byName(counters, RequestBatcher.Counters::stats);
+    }
+
+    /**
+     * Stops the window timer. Windows already running still end in a batch; after that,
+     * every call sends its batch itself.
+     */
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    private static Map<Object, Object> results(String name, List<Object> keys, Object returned, boolean listOfResults) {
+        if (!listOfResults) {
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> results = returned == null ? Map.of() : (Map<Object, Object>) returned;
+            return results;
+        }
+        List<?> values = returned == null ? List.of() : (List<?>) returned;
+        if (values.size() != keys.size()) {
+            throw new IllegalStateException("Batch method of " + name + " returned " + values.size()
+                    + " results for " + keys.size() + " keys");
+        }
+        Map<Object, Object> results = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            results.put(keys.get(i), values.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * @return the method with the given name that takes one List, Set or Collection and returns a Map or List
+     */
+    private static Method findBatchMethod(Method method, String batchMethodName) {
+        List<Method> candidates = new ArrayList<>(List.of(method.getDeclaringClass().getMethods()));
+        candidates.addAll(List.of(method.getDeclaringClass().getDeclaredMethods()));
+        for (Method candidate : candidates) {
+            if (!candidate.getName().equals(batchMethodName) || candidate.getParameterCount() != 1) continue;
+            Class<?> keys = candidate.getParameterTypes()[0];
+            Class<?> results = candidate.getReturnType();
+            if ((keys == List.class || keys == Set.class || keys == Collection.class)
+                    && (Map.class.isAssignableFrom(results) || List.class.isAssignableFrom(results))) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("@MiniBatched " + method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + ": no method " + batchMethodName + "(List, Set or Collection of keys) returning a Map or List");
+    }
+}
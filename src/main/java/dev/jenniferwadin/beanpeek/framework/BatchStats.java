@@ -0,0 +1,35 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * A point-in-time view of one @MiniBatched method.
+ *
+ * @param calls          calls of the single-key method
+ * @param batches        calls of the batch method
+ * @param maxBatchSize   the most calls sent in one batch
+ * @param totalWaitNanos time calls spent waiting for their batch to be sent, summed
+ * @param maxWaitNanos   the longest such wait
+ * @param failedBatches  batches whose batch method threw
+ */
+public record BatchStats(long calls, long batches, long maxBatchSize,
+                         long totalWaitNanos, long maxWaitNanos, long failedBatches) {
+
+    /**
+     * @return the mean number of calls per batch; 0 if none was sent
+     */
+    public double meanBatchSize() {
+        return batches == 0 ? 0 : (double) calls / batches;
+    }
+
+    /**
+     * @return the mean time a call waited for its batch to be sent, in nanoseconds; 0 if none was
+     */
+    public double meanWaitNanos() {
+        return calls == 0 ? 0 : (double) totalWaitNanos / calls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%d batches=%d meanBatch=%.1f maxBatch=%d meanWait=%.3fms maxWait=%.3fms failed=%d",
+                calls, batches, meanBatchSize(), maxBatchSize, meanWaitNanos() / 1e6, maxWaitNanos / 1e6, failedBatches);
+    }
+}
@@ -1,27 +1,141 @@
 package dev.jenniferwadin.beanpeek.framework;
 
-import dev.jenniferwadin.beanpeek.annotation.MiniConfigProperty;
-import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
-import dev.jenniferwadin.beanpeek.annotation.MiniPreDestroy;
+import dev.jenniferwadin.beanpeek.annotation.MiniLazy;
+import dev.jenniferwadin.beanpeek.annotation.MiniScope;
 import dev.jenniferwadin.beanpeek.annotation.MiniService;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * BeanContainer is a simple container for managing beans manually.
  * It handles creation, storage, and post-construction initialization of beans.
+ * The container is safe for concurrent use:
+ * - Lookups (getBean, getBeansOfType) never lock; they read concurrent maps and
+ *   immutable per-type lists.
+ * - Registering a class is atomic and happens at most once: if several threads
+ *   register the same class, one creates the bean and the others wait for it.
+ * - A bean becomes visible only after its config properties are injected and its
+ *   @MiniPostConstruct methods have run. Asynchronous @MiniPostConstruct methods (async,
+ *   or returning a CompletionStage) are the exception: they run on virtual threads while
+ *   startup goes on. A bean that depends on such a bean is constructed only after that
+ *   bean's initialization completed; other beans do not wait. awaitReady waits for all of them.
+ * When the configuration is reloaded (see MiniConfiguration), the changed
+ * @MiniConfigProperty fields of singleton beans are injected again.
+ * Child containers (see createChild) hold the beans of one tenant on top of the beans
+ * of their parent.
  */
 @Slf4j
-public class BeanContainer {
+public class BeanContainer implements AutoCloseable {
 
-    private final Map<Class<?>, Object> beans = new HashMap<>();
-    private final MiniConfiguration config = new MiniConfiguration();
+    private static final String PARALLEL_STARTUP = "beanpeek.startup.parallel";
+    private static final String STARTUP_THREADS = "beanpeek.startup.threads";
+    private static final String PROXY_MODE = "beanpeek.proxy.mode";
+    private static final String LAZY_DEFAULT = "beanpeek.lazy.default";
+    private static final String SHUTDOWN_BEAN_TIMEOUT = "beanpeek.shutdown.bean-timeout-millis";
+    private static final String SHUTDOWN_TIMEOUT = "beanpeek.shutdown.timeout-millis";
+    private static final String ASYNC_MAX_CONCURRENCY = "beanpeek.async.max-concurrency";
+    private static final String ASYNC_SHUTDOWN_TIMEOUT = "beanpeek.async.shutdown-timeout-millis";
+
+    private final BeanContainer parent;
+    private final Set<BeanContainer> children = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+    private final Map<Class<?>, Object> beans = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CompletableFuture<Object>> pendingRegistrations = new ConcurrentHashMap<>();
+    private final BeanTypeIndex typeIndex = new BeanTypeIndex();
+    // Shared with child containers; keyed by constructor, since a child may create a class its own way
+    private final Map<Constructor<?>, CompiledBeanFactory> factories;
+    private final Map<Class<?>, LazyBean> lazyBeans = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Object> singletons = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CompiledBeanFactory> singletonFactories = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Class<?>>> beanDependencies = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CompletableFuture<Void>> initializers = new ConcurrentHashMap<>();
+    // Fails with the first failed asynchronous initialization
+    private final CompletableFuture<Void> initializationFailure = new CompletableFuture<>();
+    private final ExecutorService initializerExecutor;
+    private final MiniConfiguration config;
+    private final StartupRecorder startupRecorder = new StartupRecorder();
+    private final ProxyFactory proxyFactory;
+    private ShutdownReport shutdownReport;
+
+    public BeanContainer() {
+        this.parent = null;
+        this.factories = new ConcurrentHashMap<>();
+        this.initializerExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("beanpeek-init-", 0).factory());
+        this.config = new MiniConfiguration();
+        this.proxyFactory = new ProxyFactory(
+                ProxyFactory.ProxyMode.valueOf(config.getString(PROXY_MODE, "auto").toUpperCase()),
+                new AsyncInterceptor(this::asyncMaxConcurrency));
+        config.addListener(this::reinjectConfig);
+        config.start();
+    }
+
+    /**
+     * A child shares everything of its parent that does not hold beans: the configuration,
+     * the compiled bean factories, the proxy factory with its interceptors, and the executor
+     * of asynchronous initializations.
+     */
+    private BeanContainer(BeanContainer parent) {
+        this.parent = parent;
+        this.factories = parent.factories;
+        this.initializerExecutor = parent.initializerExecutor;
+        this.config = parent.config;
+        this.proxyFactory = parent.proxyFactory;
+    }
+
+    /**
+     * Creates a child container, e.g. for the beans of one tenant.
+     * - Dependencies the child does not have are resolved from its parent (and the parent's
+     *   ancestors), so only the child's own beans are created. A child may also register its
+     *   own bean of a class its parent has; that bean then shadows the parent's in the child.
+     * - getBean and borrowBean look in the child first, then in its ancestors; getBeansOfType
+     *   returns the beans of all of them.
+     * - getRegisteredBeanClasses includes the ancestors' beans, so a DependencyGraph (or a
+     *   BeanScanner) run for the child only orders the child's beans. The same creation order
+     *   can be registered in any number of children without resolving it again.
+     * - The bean classes' compiled factories, the configuration and the interceptors are the
+     *   parent's. Interceptor state is kept per bean method, so @MiniCacheable
+     *   results, @MiniBulkhead limits and the timings of a bean class are shared by all
+     *   children; do not cache tenant-specific results in a child bean.
+     * Creating a child allocates a few empty maps and nothing else.
+     * The child is closed (see shutdown) when its parent shuts down, unless it was closed before.
+     *
+     * @return a new, empty child container
+     * @throws IllegalStateException if this container has been shut down
+     */
+    public BeanContainer createChild() {
+        BeanContainer child = new BeanContainer(this);
+        children.add(child);
+        // Checked after adding, so a concurrent shutdown either sees the child or is seen here
+        if (closed) {
+            children.remove(child);
+            throw new IllegalStateException("Cannot create a child of a container that has been shut down");
+        }
+        return child;
+    }
+
+    /**
+     * @return the container this one was created from, or null for a root container
+     */
+    public BeanContainer getParent() {
+        return parent;
+    }
 
     /**
      * Attempts to register a bean if the class is annotated with @MiniService.
@@ -42,105 +156,523 @@ public class BeanContainer {
      * @return true if the bean was successfully created and registered; false otherwise
      */
     public boolean tryRegisterBean(Class<?> clazz) {
-        try {
-            if (!isMiniService(clazz)) return false;
-            if(isBeanRegistered(clazz)) return true;
-
-            Constructor<?>[] constructors = clazz.getDeclaredConstructors();
-            Constructor<?> selectedConstructor = null;
-            Object[] resolvedDependencies = null;
-
-            for (Constructor<?> constructor : constructors) {
-                if(canResolve(constructor)) {
-                    selectedConstructor = constructor;
-                    resolvedDependencies = resolveDependencies(constructor);
-                    break;
-                }
+        if (!isMiniService(clazz)) return false;
+        if(isBeanRegistered(clazz)) return true;
+
+        BeanPhaseEvent resolve = startupRecorder.begin(StartupPhase.RESOLVE, clazz);
+        Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+        Constructor<?> selectedConstructor = null;
+        Object[] resolvedDependencies = null;
+
+        for (Constructor<?> constructor : constructors) {
+            if(canResolve(constructor)) {
+                selectedConstructor = constructor;
+                resolvedDependencies = resolveDependencies(constructor);
+                break;
             }
+        }
+        startupRecorder.end(resolve);
 
-            if (selectedConstructor == null) {
-                log.warn("Could not resolve any constructor for {}", clazz.getSimpleName());
-                logConstructorList(clazz, constructors);
-                log.warn("Make sure all required dependencies are registered before this bean.");
-                return false;
+        if (selectedConstructor == null) {
+            log.warn("Could not resolve any constructor for {}", clazz.getSimpleName());
+            logConstructorList(clazz, constructors);
+            log.warn("Make sure all required dependencies are registered before this bean.");
+            return false;
+        }
+
+        createBean(new BeanDefinition(clazz, selectedConstructor, List.of(selectedConstructor.getParameterTypes())),
+                resolvedDependencies);
+        return true;
+    }
+
+    /**
+     * Registers a bean whose constructor and dependencies have already been
+     * resolved by a DependencyGraph. Unlike tryRegisterBean, no constructors
+     * are tried: the definition is trusted, and every dependency must already
+     * be registered (which the graph's creation order guarantees).
+     *
+     * @param definition the resolved bean definition
+     */
+    public void registerBean(BeanDefinition definition) {
+        Class<?> clazz = definition.beanClass();
+        if (isBeanRegistered(clazz)) return;
+
+        List<Class<?>> dependencies = definition.dependencies();
+        Object[] resolvedDependencies = new Object[dependencies.size()];
+        for (int i = 0; i < resolvedDependencies.length; i++) {
+            resolvedDependencies[i] = registered(dependencies.get(i));
+        }
+
+        createBean(definition, resolvedDependencies);
+    }
+
+    /**
+     * Registers all beans of a resolved creation order.
+     * By default the beans are created one after another on the calling thread.
+     * When the property "beanpeek.startup.parallel" is true, beans whose dependencies
+     * are satisfied are constructed and initialized concurrently on a bounded
+     * fork-join pool (sized by "beanpeek.startup.threads", default: number of cores),
+     * so startup takes roughly as long as the longest dependency path.
+     * In both modes each bean is registered as soon as it has been initialized, the
+     * same way as by registerBean: a class that is being registered concurrently
+     * (e.g. by another scan) is created only once, and the others wait for it.
+     * Sequentially the beans become visible in creation order; in parallel, in the
+     * order they finish, which puts every bean after its dependencies.
+     * If a bean fails, its exception is thrown, and the beans created until then stay
+     * registered (and are destroyed at shutdown). Sequentially, those are the beans before
+     * it; in parallel, every bean that does not depend on a failed one.
+     *
+     * @param creationOrder the bean definitions, ordered so that dependencies come first
+     */
+    public void registerBeans(List<BeanDefinition> creationOrder) {
+        if (!config.getBoolean(PARALLEL_STARTUP, false) || creationOrder.size() < 2) {
+            for (BeanDefinition definition : creationOrder) {
+                registerBean(definition);
             }
+            return;
+        }
 
-            Object rawInstance = selectedConstructor.newInstance(resolvedDependencies);
-            Object instance = ProxyFactory.createProxyIfNeeded(clazz, rawInstance);
+        int threads = config.getInt(STARTUP_THREADS, Runtime.getRuntime().availableProcessors());
+        ParallelBeanInitializer initializer = new ParallelBeanInitializer(threads);
+        ParallelBeanInitializer.Result result = initializer.initialize(creationOrder, this::registered,
+                (definition, dependencies) -> registerIfAbsent(definition.beanClass(),
+                        () -> createRegistration(definition, dependencies)));
+        if (result.failure() != null) {
+            throw result.failure();
+        }
+    }
 
-            beans.put(clazz, instance);
-            log.info("Registered bean: {}", clazz.getSimpleName());
+    /**
+     * Adds an aspect that is applied to the methods of beans registered afterwards.
+     * Interceptors wrap each other in registration order, after the built-in ones.
+     * They do not apply to @MiniBatched methods, whose calls end in the batch method.
+     *
+     * @param interceptor the interceptor to add
+     */
+    public void addInterceptor(MethodInterceptor interceptor) {
+        proxyFactory.addInterceptor(interceptor);
+    }
+
+    /**
+     * Returns the execution times of all @LogExecutionTime methods, recorded since
+     * startup (or the last resetTimings): count, mean, p50, p99, p999 and max.
+     *
+     * @return one snapshot per timed method, keyed like getCacheStats
+     */
+    public Map<String, LatencySnapshot> getTimingSnapshots() {
+        return proxyFactory.getTimingInterceptor().getSnapshots();
+    }
 
-            invokePostConstructMethods(instance);
-            setMiniConfigProperties(instance);
-            return true;
+    /**
+     * Interval mode of getTimingSnapshots: only the calls recorded since the previous
+     * call to this method, for scrapers that poll at a fixed rate.
+     *
+     * @return one snapshot per timed method, keyed like getCacheStats
+     */
+    public Map<String, LatencySnapshot> getIntervalTimingSnapshots() {
+        return proxyFactory.getTimingInterceptor().getIntervalSnapshots();
+    }
+
+    /**
+     * Clears the recorded execution times of all @LogExecutionTime methods.
+     */
+    public void resetTimings() {
+        proxyFactory.getTimingInterceptor().reset();
+    }
 
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException(e);
+    /**
+     * @return how many @LogExecutionTime log lines were dropped because logging fell behind
+     */
+    public long getDroppedTimingLogEvents() {
+        return proxyFactory.getTimingInterceptor().getDroppedLogEvents();
+    }
+
+    /**
+     * Returns the cache statistics of all @MiniCacheable methods: size, hits, misses,
+     * loads, load failures, load time and evictions.
+     *
+     * @return one entry per cached method, keyed "ClassName.methodName"; methods that share
+     *         that name (overloads, same-named classes) are keyed by their full name,
+     *         "package.ClassName.methodName(ParameterType, ...)"
+     */
+    public Map<String, CacheStats> getCacheStats() {
+        return proxyFactory.getCacheInterceptor().getStats();
+    }
+
+    /**
+     * Removes the cached result of one call of a @MiniCacheable method, so the next call
+     * with these arguments runs the method again.
+     *
+     * @param method    "ClassName.methodName" (every overload) or the full name, as in getCacheStats
+     * @param arguments the arguments of the call
+     * @throws IllegalArgumentException if the method is not cached
+     */
+    public void invalidateCache(String method, Object... arguments) {
+        proxyFactory.getCacheInterceptor().invalidate(method, arguments);
+    }
+
+    /**
+     * Removes all cached results of a @MiniCacheable method.
+     *
+     * @param method "ClassName.methodName" (every overload) or the full name, as in getCacheStats
+     * @throws IllegalArgumentException if the method is not cached
+     */
+    public void clearCache(String method) {
+        proxyFactory.getCacheInterceptor().invalidateAll(method);
+    }
+
+    /**
+     * Returns the state of each @MiniBulkhead method: its current limit, the calls
+     * running and waiting now, and how many calls were admitted, rejected and failed.
+     *
+     * @return one entry per limited method, keyed like getCacheStats
+     */
+    public Map<String, BulkheadStats> getBulkheadStats() {
+        return proxyFactory.getBulkheadInterceptor().getStats();
+    }
+
+    /**
+     * Returns how well the calls of each @MiniBatched method were collapsed:
+     * calls, batches, batch sizes and how long calls waited for their batch.
+     *
+     * @return one entry per batched method, keyed like getCacheStats
+     */
+    public Map<String, BatchStats> getBatchStats() {
+        return proxyFactory.getBatchInterceptor().getStats();
+    }
+
+    /**
+     * Reads the config file (see MiniConfiguration) again, without waiting for the
+     * file watcher, and re-injects the values that changed.
+     *
+     * @return the keys whose value changed
+     */
+    public Set<String> reloadConfiguration() {
+        return config.reload();
+    }
+
+    /**
+     * Reports how long each bean took to create, phase by phase, and which chain of
+     * dependent beans took longest (the critical path that bounds startup time).
+     * The same phases are recorded as JDK Flight Recorder events (category "Beanpeek").
+     *
+     * @return the timings of all beans registered so far, slowest path first
+     */
+    public StartupReport getStartupReport() {
+        return startupRecorder.report();
+    }
+
+    /**
+     * Completes when the asynchronous @MiniPostConstruct methods of all singletons
+     * created so far have completed. Fails as soon as one of them fails, without waiting
+     * for the others, with an IllegalStateException naming the bean.
+     * Beans created later (e.g. lazy beans on first use) are not included; call again
+     * to wait for them too.
+     */
+    public CompletableFuture<Void> readiness() {
+        CompletableFuture<Void> all = CompletableFuture.allOf(initializers.values().toArray(CompletableFuture<?>[]::new));
+        return CompletableFuture.anyOf(all, initializationFailure).thenApply(done -> null);
+    }
+
+    /**
+     * Blocks until the container is ready (see readiness).
+     *
+     * @throws IllegalStateException if an asynchronous @MiniPostConstruct method failed
+     */
+    public void awaitReady() {
+        awaitInitializer(readiness());
+    }
+
+    MiniConfiguration getConfiguration() {
+        return config;
+    }
+
+    StartupRecorder getStartupRecorder() {
+        return startupRecorder;
+    }
+
+    /**
+     * @return the classes of all beans registered so far, including those of the ancestors of a child container
+     */
+    public Set<Class<?>> getRegisteredBeanClasses() {
+        if (parent == null) {
+            return Collections.unmodifiableSet(beans.keySet());
         }
+        Set<Class<?>> classes = new LinkedHashSet<>(parent.getRegisteredBeanClasses());
+        classes.addAll(beans.keySet());
+        return Collections.unmodifiableSet(classes);
     }
 
-    private boolean isBeanRegistered(Class<?> clazz) {
-        return beans.containsKey(clazz);
+    /**
+     * @return what is registered for the class in this container or, failing that,
+     *         in the nearest ancestor that has it; null if none has
+     */
+    private Object registered(Class<?> clazz) {
+        for (BeanContainer container = this; container != null; container = container.parent) {
+            Object registered = container.beans.get(clazz);
+            if (registered != null) return registered;
+        }
+        return null;
     }
 
-    private static boolean isMiniService(Class<?> clazz) {
-        return clazz.isAnnotationPresent(MiniService.class);
+    private void createBean(BeanDefinition definition, Object[] resolvedDependencies) {
+        registerIfAbsent(definition.beanClass(), () -> createRegistration(definition, resolvedDependencies));
     }
 
-    private static boolean isMiniConfigProperty(Field field) {
-        return field.isAnnotationPresent(MiniConfigProperty.class);
+    /**
+     * Registers the bean created by the creator, unless the class is registered already.
+     * The first thread to register a class claims it with a future in pendingRegistrations,
+     * creates the bean and publishes it; threads that register the same class meanwhile
+     * wait for that future instead of creating a second instance. The claim is released
+     * only after publishing, so a later caller either sees the pending future or the bean.
+     *
+     * @return the registered bean (or scope), whoever created it
+     */
+    private Object registerIfAbsent(Class<?> clazz, Supplier<Object> creator) {
+        Object registered = beans.get(clazz);
+        if (registered != null) return registered;
+
+        CompletableFuture<Object> registration = new CompletableFuture<>();
+        CompletableFuture<Object> inProgress = pendingRegistrations.putIfAbsent(clazz, registration);
+        if (inProgress != null) {
+            return awaitRegistration(inProgress);
+        }
+
+        try {
+            registered = beans.get(clazz);
+            if (registered == null) {
+                registered = creator.get();
+                putBean(clazz, registered);
+            }
+            registration.complete(registered);
+            return registered;
+        } catch (RuntimeException | Error e) {
+            registration.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingRegistrations.remove(clazz, registration);
+        }
     }
 
-    private static void invokePostConstructMethods(Object instance) throws IllegalAccessException, InvocationTargetException {
-        Class<?> clazz = instance.getClass();
+    private static Object awaitRegistration(CompletableFuture<Object> registration) {
+        try {
+            return registration.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
 
-        for(Method method : clazz.getDeclaredMethods()) {
-            if(method.isAnnotationPresent(MiniPostConstruct.class)) {
-                try {
-                    method.setAccessible(true);
-                    log.info("Running MiniPostConstruct: {}.{}", clazz.getSimpleName(), method.getName());
-                    method.invoke(instance);
-                } catch (Exception e) {
-                    log.error("Failed to execute @MiniPostConstruct method {}: {}", method.getName(), e.getMessage());
-                }
+    /**
+     * Creates what gets registered for a bean, depending on its @MiniScope:
+     * - SINGLETON (or no @MiniScope): the initialized instance itself, or a lazy proxy
+     *   if the bean is lazy (see @MiniLazy).
+     * - PROTOTYPE: a PrototypeBean that initializes a new instance for every lookup.
+     * - POOLED: a BeanPool of initialized instances.
+     * The dependencies are what is registered for each dependency; a prototype
+     * dependency becomes a new instance for every instance created here.
+     */
+    private Object createRegistration(BeanDefinition definition, Object[] registeredDependencies) {
+        Class<?> clazz = definition.beanClass();
+        Constructor<?> constructor = definition.constructor();
+        startupRecorder.setDependencies(clazz, definition.dependencies());
+        beanDependencies.put(clazz, definition.dependencies());
+        Supplier<Object> factory = () -> initializeBean(clazz, constructor, injectables(clazz, registeredDependencies), false);
+        MiniScope scope = clazz.getAnnotation(MiniScope.class);
+        return switch (scope == null ? MiniScope.Scope.SINGLETON : scope.value()) {
+            case SINGLETON -> isLazy(clazz)
+                    ? createLazyBean(clazz, constructor, registeredDependencies)
+                    : initializeBean(clazz, constructor, injectables(clazz, registeredDependencies), true);
+            case PROTOTYPE -> new PrototypeBean(factory);
+            case POOLED -> new BeanPool<>(clazz, scope.poolSize(), scope.maxWaitMillis(), factory);
+        };
+    }
+
+    /**
+     * Creates the lazy proxy for a singleton. The real bean (and the instances of its
+     * prototype dependencies) are created when the proxy is first used.
+     * The proxy is allocated without running the bean's constructor (see HiddenClassProxyGenerator).
+     * Falls back to creating the bean right away if no proxy can be made, e.g. because the class is final.
+     */
+    private Object createLazyBean(Class<?> clazz, Constructor<?> constructor, Object[] registeredDependencies) {
+        LazyBean lazy = new LazyBean(clazz,
+                () -> createRawBean(clazz, constructor, injectables(clazz, registeredDependencies), true));
+        BeanPhaseEvent event = startupRecorder.begin(StartupPhase.PROXY, clazz);
+        Object proxy;
+        try {
+            long startBytes = LazyBean.allocatedBytes();
+            long start = System.nanoTime();
+            proxy = proxyFactory.createLazyProxy(clazz, lazy);
+            lazy.recordProxyCost(System.nanoTime() - start, LazyBean.allocatedBytes() - startBytes);
+        } catch (RuntimeException e) {
+            log.warn("{} cannot be lazy and is created now: {}", clazz.getSimpleName(), e.getMessage());
+            proxy = null;
+        } finally {
+            startupRecorder.end(event);
+        }
+        if (proxy == null) {
+            return initializeBean(clazz, constructor, injectables(clazz, registeredDependencies), true);
+        }
+        lazyBeans.put(clazz, lazy);
+        return proxy;
+    }
+
+    /**
+     * @return "beanpeek.async.max-concurrency.SimpleName" if set, else "beanpeek.async.max-concurrency"
+     */
+    private int asyncMaxConcurrency(Class<?> clazz) {
+        return config.getInt(ASYNC_MAX_CONCURRENCY + "." + clazz.getSimpleName(),
+                config.getInt(ASYNC_MAX_CONCURRENCY, 256));
+    }
+
+    private boolean isLazy(Class<?> clazz) {
+        MiniLazy lazy = clazz.getAnnotation(MiniLazy.class);
+        return lazy != null ? lazy.value() : config.getBoolean(LAZY_DEFAULT, false);
+    }
+
+    private static Object[] injectables(Class<?> clazz, Object[] registeredDependencies) {
+        Object[] dependencies = new Object[registeredDependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            if (registeredDependencies[i] instanceof BeanPool<?> pool) {
+                throw new IllegalStateException("Pooled bean " + pool.getBeanClass().getSimpleName()
+                        + " cannot be injected into " + clazz.getSimpleName() + "; borrow it from the container instead");
             }
+            dependencies[i] = instanceOf(registeredDependencies[i]);
         }
+        return dependencies;
     }
 
-    private void setMiniConfigProperties(Object instance) {
-        Class<?> clazz = instance.getClass();
+    /**
+     * Constructs and initializes a bean without registering it.
+     * The bean is created by its CompiledBeanFactory, which injects config properties
+     * and runs @MiniPostConstruct methods on the raw instance; the proxy (if any) is
+     * created afterwards. The factory is compiled on first use and reused after that.
+     * Safe to call from several threads at once for different beans.
+     * Singletons are remembered for re-injection when the configuration is reloaded,
+     * and for their @MiniPreDestroy methods; prototype and pooled instances get the
+     * config values current when they are created.
+     */
+    private Object initializeBean(Class<?> clazz, Constructor<?> constructor, Object[] resolvedDependencies, boolean singleton) {
+        Object rawInstance = createRawBean(clazz, constructor, resolvedDependencies, singleton);
+        if (!startupRecorder.isActive(clazz)) {
+            return proxyFactory.createProxyIfNeeded(clazz, rawInstance);
+        }
+        BeanPhaseEvent event = startupRecorder.begin(StartupPhase.PROXY, clazz);
+        Object bean = proxyFactory.createProxyIfNeeded(clazz, rawInstance);
+        startupRecorder.end(event);
+        return bean;
+    }
+
+    /**
+     * Creates an instance once the asynchronous initialization of its dependencies is done.
+     * Its own asynchronous @MiniPostConstruct methods are started here; a singleton's are
+     * tracked for readiness, a prototype or pooled instance is only returned once they are done.
+     */
+    private Object createRawBean(Class<?> clazz, Constructor<?> constructor, Object[] resolvedDependencies, boolean singleton) {
+        CompiledBeanFactory factory = factories.computeIfAbsent(constructor,
+                selected -> CompiledBeanFactory.compile(clazz, selected, config));
+        awaitDependencies(clazz);
+        Object instance = factory.create(resolvedDependencies, startupRecorder);
+        if (singleton) {
+            singletonFactories.put(clazz, factory);
+            singletons.put(clazz, instance);
+        }
+        if (factory.hasAsyncPostConstruct()) {
+            CompletableFuture<Void> initializer = initializer(clazz, factory.startAsyncPostConstruct(instance, initializerExecutor), singleton);
+            if (singleton) {
+                initializers.put(clazz, initializer);
+            } else {
+                awaitInitializer(initializer);
+            }
+        }
+        return instance;
+    }
 
-        for (Field field : clazz.getDeclaredFields()) {
-            if(isMiniConfigProperty(field)) {
-                try {
-                    field.setAccessible(true);
-                    log.info("Setting MiniConfigProperty: {}.{}", clazz.getSimpleName(), field.getName());
-                    Class<?> fieldType = field.getType();
-                    String value = this.config.get(field.getAnnotation(MiniConfigProperty.class).value());
-                    Object convertedValue = getConvertedValue(fieldType, value);
-                    field.set(instance, convertedValue);
-                } catch (IllegalAccessException e) {
-                    log.error("Failed to set MiniConfigProperty: {}.{}", clazz.getSimpleName(), field.getName());
+    private void awaitDependencies(Class<?> clazz) {
+        for (Class<?> dependency : beanDependencies.getOrDefault(clazz, List.of())) {
+            CompletableFuture<Void> initializer = initializerOf(dependency);
+            if (initializer != null) {
+                if (!initializer.isDone()) {
+                    log.debug("{} waits for the initialization of {}", clazz.getSimpleName(), dependency.getSimpleName());
                 }
+                awaitInitializer(initializer);
             }
         }
     }
 
-    private static Object getConvertedValue(Class<?> fieldType, String value) {
-        Object convertedValue;
-        if (fieldType == String.class) {
-            convertedValue = value;
-        } else if (fieldType == int.class || fieldType == Integer.class) {
-            convertedValue = Integer.parseInt(value);
-        } else if (fieldType == boolean.class || fieldType == Boolean.class) {
-            convertedValue = Boolean.parseBoolean(value);
-        } else if (fieldType == double.class || fieldType == Double.class) {
-            convertedValue = Double.parseDouble(value);
+    private CompletableFuture<Void> initializerOf(Class<?> dependency) {
+        for (BeanContainer container = this; container != null; container = container.parent) {
+            CompletableFuture<Void> initializer = container.initializers.get(dependency);
+            if (initializer != null) return initializer;
+        }
+        return null;
+    }
+
+    /**
+     * @return completes with the asynchronous initialization of a bean, or fails with an
+     *         IllegalStateException naming it (which also fails readiness, for a singleton)
+     */
+    private CompletableFuture<Void> initializer(Class<?> clazz, CompletableFuture<Void> initialization, boolean singleton) {
+        return initialization.handle((done, failure) -> {
+            if (failure == null) return null;
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            log.error("Asynchronous MiniPostConstruct of {} failed: {}", clazz.getSimpleName(), cause.toString());
+            IllegalStateException e = new IllegalStateException(
+                    "Asynchronous @MiniPostConstruct of " + clazz.getSimpleName() + " failed", cause);
+            if (singleton) initializationFailure.completeExceptionally(e);
+            throw e;
+        });
+    }
+
+    private static void awaitInitializer(CompletableFuture<Void> initializer) {
+        try {
+            initializer.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Asynchronous initialization failed", e.getCause());
+        }
+    }
+
+    private void reinjectConfig(Set<String> changedKeys) {
+        singletons.forEach((clazz, instance) -> {
+            CompiledBeanFactory factory = singletonFactories.get(clazz);
+            if (factory.hasReinjectableProperties() && factory.reinject(instance, changedKeys)) {
+                log.info("Re-injected changed config properties into {}", clazz.getSimpleName());
+            }
+        });
+        // Children share the configuration but not its listeners, so creating one costs no listener
+        for (BeanContainer child : children) {
+            child.reinjectConfig(changedKeys);
+        }
+    }
+
+    /**
+     * Publishes a fully initialized bean. Only called by the thread that claimed the class.
+     */
+    private void putBean(Class<?> clazz, Object registered) {
+        Class<?> instanceClass = registered instanceof ScopedBean scoped ? scoped.instanceClass() : registered.getClass();
+        typeIndex.add(clazz, registered, instanceClass);
+        beans.put(clazz, registered);
+        startupRecorder.complete(clazz);
+
+        if (parent != null) {
+            log.debug("Registered bean in child container: {}", clazz.getSimpleName());
+        } else if (registered instanceof ScopedBean) {
+            log.info("Registered {} bean: {}", clazz.getAnnotation(MiniScope.class).value().name().toLowerCase(), clazz.getSimpleName());
+        } else if (lazyBeans.containsKey(clazz)) {
+            log.info("Registered lazy bean: {}", clazz.getSimpleName());
         } else {
-            throw new IllegalArgumentException("Unsupported config type: " + fieldType.getName());
+            log.info("Registered bean: {}", clazz.getSimpleName());
         }
-        return convertedValue;
+    }
+
+    private boolean isBeanRegistered(Class<?> clazz) {
+        return beans.containsKey(clazz);
+    }
+
+    private static boolean isMiniService(Class<?> clazz) {
+        return clazz.isAnnotationPresent(MiniService.class);
     }
 
     /**
@@ -173,7 +705,7 @@ public class BeanContainer {
      */
     private boolean canResolve(Constructor<?> constructor) {
         for (Class<?> type : constructor.getParameterTypes()) {
-            if (!beans.containsKey(type)) {
+            if (registered(type) == null) {
                 return false;
             }
         }
@@ -193,59 +725,272 @@ public class BeanContainer {
         Object[] resolvedDependencies = new Object[parameterTypes.length];
 
         for (int i = 0; i < parameterTypes.length; i++) {
-            resolvedDependencies[i] = beans.get(parameterTypes[i]);
+            resolvedDependencies[i] = registered(parameterTypes[i]);
         }
         return resolvedDependencies;
     }
 
+    /**
+     * Registers a JVM shutdown hook that calls shutdown().
+     */
     public void registerShutdownHook() {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            for (Map.Entry<Class<?>, Object> entry : beans.entrySet()) {
-                Object bean = entry.getValue();
-                Class<?> clazz = bean.getClass();
-                log.info("Shutdown initiated.");
-
-                for (Method method : clazz.getDeclaredMethods()) {
-                    if (method.isAnnotationPresent(MiniPreDestroy.class)) {
-                        try {
-                            method.setAccessible(true);
-                            log.info("Running MiniPreDestroy: {}.{}", clazz.getSimpleName(), method.getName());
-                            method.invoke(bean);
-                        } catch (InvocationTargetException | IllegalAccessException e) {
-                            log.error("Failed to execute MiniPreDestroy method {}: {}", method.getName(), e.getMessage());
-                        }
-                    }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "beanpeek-shutdown"));
+    }
+
+    /**
+     * Stops the @MiniAsync executor, giving running calls "beanpeek.async.shutdown-timeout-millis"
+     * (default 5000) to finish; later calls fail. Then destroys the singletons: runs their
+     * @MiniPreDestroy methods in reverse dependency
+     * order, so a bean is destroyed only after the beans that depend on it. Beans that
+     * do not depend on each other are destroyed in parallel.
+     * Each bean gets "beanpeek.shutdown.bean-timeout-millis" (default 5000) and the whole
+     * shutdown "beanpeek.shutdown.timeout-millis" (default 30000); beans that exceed
+     * their budget are interrupted and reported, and shutdown goes on without them.
+     * Prototype and pooled instances are owned by whoever holds them, and lazy beans
+     * that were never used were never created; neither is destroyed.
+     * Only the first call destroys anything; later calls return the same report.
+     * Child containers that are still open are closed first, in parallel, each with its own
+     * report; they share the deadline of this shutdown, so it stays the same however many
+     * children there are.
+     * Closing a child destroys only the child's own singletons, the same way; everything
+     * it shares with its parent stays open, and the parent no longer holds on to it.
+     *
+     * @return how destroying each bean with @MiniPreDestroy methods went
+     */
+    public synchronized ShutdownReport shutdown() {
+        if (shutdownReport != null) return shutdownReport;
+        closed = true;
+        if (parent == null) {
+            log.info("Shutdown initiated.");
+            // Running @MiniAsync calls may still use the beans, so they finish first
+            proxyFactory.getAsyncInterceptor().close(config.getInt(ASYNC_SHUTDOWN_TIMEOUT, 5_000));
+        }
+        return destroy(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getInt(SHUTDOWN_TIMEOUT, 30_000)));
+    }
+
+    /**
+     * Shuts a child down as part of its parent's shutdown, by the parent's deadline.
+     */
+    private synchronized void shutdown(long deadline) {
+        if (shutdownReport != null) return;
+        closed = true;
+        destroy(deadline);
+    }
+
+    /**
+     * Closes the open children, then destroys the singletons, all by the deadline.
+     * Called with the lock held, once.
+     */
+    private ShutdownReport destroy(long deadline) {
+        List<BeanContainer> openChildren = List.copyOf(children);
+        if (openChildren.size() == 1) {
+            openChildren.get(0).shutdown(deadline);
+        } else if (!openChildren.isEmpty()) {
+            // Waits for every child; each one gives up on its beans at the deadline
+            try (ExecutorService closer = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("beanpeek-close-", 0).factory())) {
+                for (BeanContainer child : openChildren) {
+                    closer.execute(() -> child.shutdown(deadline));
                 }
             }
-        }));
+        }
 
+        BeanDestroyer destroyer = new BeanDestroyer(startupRecorder,
+                config.getInt(SHUTDOWN_BEAN_TIMEOUT, 5_000), config.getInt(SHUTDOWN_TIMEOUT, 30_000));
+        shutdownReport = destroyer.destroy(new LinkedHashMap<>(singletons), beanDependencies, deadline);
+        if (shutdownReport.isClean()) {
+            // Children come and go with their tenants; only their problems are worth a line
+            if (parent == null) {
+                log.info("Shutdown complete: {}", shutdownReport);
+            } else {
+                log.debug("Child container closed: {}", shutdownReport);
+            }
+        } else {
+            log.warn("Shutdown complete with problems: {}", shutdownReport);
+        }
+
+        if (parent != null) {
+            parent.children.remove(this);
+            return shutdownReport;
+        }
+        initializerExecutor.shutdownNow();
+        proxyFactory.getTimingInterceptor().close();
+        proxyFactory.getBatchInterceptor().close();
+        config.close();
+        return shutdownReport;
+    }
+
+    /**
+     * Same as shutdown, for try-with-resources around a short-lived child container.
+     */
+    @Override
+    public void close() {
+        shutdown();
     }
 
     /**
      * Retrieves a bean instance from the container that matches the given type.
      * Lookup strategy:
      * 1. First tries to find a bean registered directly with the given class as key.
-     * 2. If not found, searches all beans for one whose class implements or extends the given type.
+     * 2. If not found, looks the type up in the type index, which maps every superclass
+     *    and interface of each bean to the beans that implement or extend it.
      * This allows beans to be retrieved by interface or superclass, even when
-     * a proxy is used or the concrete class is unknown.
+     * a proxy is used or the concrete class is unknown. Both steps are a single map lookup.
+     * A child container that has no match goes on to its parent, and so on.
+     * Prototype beans return a new instance on every call. Pooled beans cannot be
+     * looked up this way, since the instance has to be returned: use borrowBean.
      *
      * @param clazz the desired class or interface
      * @param <T> the type of the bean to return
      * @return the matching bean instance, or null if no match is found
+     * @throws IllegalStateException if more than one bean matches the given type, or the bean is pooled
      */
     @SuppressWarnings("unchecked")
     public <T> T getBean(Class<T> clazz) {
+        for (BeanContainer container = this; container != null; container = container.parent) {
+            Object registered = container.findBean(clazz);
+            if (registered != null) {
+                return (T) lookupInstance(registered);
+            }
+        }
+        log.warn("No bean found for type: {}", clazz.getSimpleName());
+        return null;
+    }
+
+    /**
+     * @return what is registered in this container (not its ancestors) for the type, or null
+     */
+    private Object findBean(Class<?> clazz) {
         Object directHit = beans.get(clazz);
         if (directHit != null) {
-            return (T) directHit;
+            return directHit;
         }
 
-        for (Object bean : beans.values()) {
-            if (clazz.isAssignableFrom(bean.getClass())) {
-                return (T) bean;
-            }
+        List<BeanTypeIndex.Entry> matches = typeIndex.get(clazz);
+        if (matches.size() == 1) {
+            return matches.get(0).instance();
+        }
+        if (matches.size() > 1) {
+            throw new IllegalStateException("Expected a single bean of type " + clazz.getSimpleName()
+                    + " but found " + matches.size() + ": " + beanClassNames(matches));
         }
-        log.warn("No bean found for type: {}", clazz.getSimpleName());
         return null;
     }
+
+    /**
+     * Retrieves all beans that implement or extend the given type, in registration order.
+     * Prototype beans contribute a new instance; pooled beans are left out.
+     * A child container returns the beans of its ancestors first, except those it shadows.
+     *
+     * @param clazz the desired class or interface
+     * @param <T> the type of the beans to return
+     * @return the matching bean instances; empty if there are none
+     */
+    public <T> List<T> getBeansOfType(Class<T> clazz) {
+        List<T> result = new ArrayList<>();
+        addBeansOfType(clazz, this, result);
+        return result;
+    }
+
+    private <T> void addBeansOfType(Class<T> clazz, BeanContainer requester, List<T> result) {
+        if (parent != null) {
+            parent.addBeansOfType(clazz, requester, result);
+        }
+        for (BeanTypeIndex.Entry match : typeIndex.get(clazz)) {
+            if (match.instance() instanceof BeanPool<?>) continue;
+            // Left out if a container nearer to the requester registered the same class
+            if (requester != this && requester.registered(match.beanClass()) != match.instance()) continue;
+            result.add(clazz.cast(instanceOf(match.instance())));
+        }
+    }
+
+    /**
+     * Borrows an instance of a pooled bean, found the same way as in getBean.
+     * The instance is returned to the pool when the PooledBean is closed.
+     * If every instance is in use, waits up to the bean's maxWaitMillis for one to be returned.
+     *
+     * @param clazz the desired class or interface
+     * @param <T> the type of the bean to borrow
+     * @return the borrowed instance
+     * @throws IllegalStateException if there is no single pooled bean of that type,
+     *                               or no instance became available in time
+     */
+    @SuppressWarnings("unchecked")
+    public <T> PooledBean<T> borrowBean(Class<T> clazz) {
+        Object registered = null;
+        for (BeanContainer container = this; container != null && registered == null; container = container.parent) {
+            registered = container.findPool(clazz);
+        }
+        if (!(registered instanceof BeanPool<?> pool)) {
+            throw new IllegalStateException("No pooled bean found for type: " + clazz.getSimpleName());
+        }
+
+        BeanPool<T> typedPool = (BeanPool<T>) pool;
+        return new PooledBean<>(typedPool, typedPool.borrow());
+    }
+
+    private Object findPool(Class<?> clazz) {
+        Object registered = beans.get(clazz);
+        if (registered != null) return registered;
+
+        List<BeanTypeIndex.Entry> matches = typeIndex.get(clazz).stream()
+                .filter(entry -> entry.instance() instanceof BeanPool<?>)
+                .toList();
+        if (matches.size() > 1) {
+            throw new IllegalStateException("Expected a single pooled bean of type " + clazz.getSimpleName()
+                    + " but found " + matches.size() + ": " + beanClassNames(matches));
+        }
+        return matches.isEmpty() ? null : matches.get(0).instance();
+    }
+
+    /**
+     * @return the statistics of every pooled bean, keyed by bean class
+     */
+    public Map<Class<?>, PoolStats> getPoolStats() {
+        Map<Class<?>, PoolStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, Object> entry : beans.entrySet()) {
+            if (entry.getValue() instanceof BeanPool<?> pool) {
+                stats.put(entry.getKey(), pool.getStats());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Reports, for every lazy bean, what its proxy cost at startup and, once the bean
+     * has been used, how much creating it took. That creation time and allocation is
+     * what startup saved by deferring the bean.
+     *
+     * @return one report per lazy bean, ordered by class name
+     */
+    public List<LazyBeanReport> getLazyBeanReports() {
+        return lazyBeans.values().stream()
+                .map(LazyBean::report)
+                .sorted(Comparator.comparing(report -> report.beanClass().getName()))
+                .toList();
+    }
+
+    /**
+     * @return the instance to hand out for a registered bean: the bean itself,
+     *         or a new instance for prototypes
+     */
+    private static Object instanceOf(Object registered) {
+        return registered instanceof PrototypeBean prototype ? prototype.get() : registered;
+    }
+
+    private static Object lookupInstance(Object registered) {
+        if (registered instanceof BeanPool<?> pool) {
+            throw new IllegalStateException(pool.getBeanClass().getSimpleName() + " is a pooled bean; use borrowBean");
+        }
+        return instanceOf(registered);
+    }
+
+    private static String beanClassNames(List<BeanTypeIndex.Entry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (BeanTypeIndex.Entry entry : entries) {
+            if (!sb.isEmpty()) sb.append(", ");
+            sb.append(entry.beanClass().getSimpleName());
+        }
+        return sb.toString();
+    }
 }
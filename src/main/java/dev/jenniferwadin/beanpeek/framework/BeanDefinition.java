@@ -0,0 +1,16 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+
+/**
+ * Describes how a single bean is created: which class, which constructor,
+ * and which registered beans are passed to that constructor.
+ * Produced by the DependencyGraph and consumed by the BeanContainer.
+ *
+ * @param beanClass    the @MiniService class to instantiate
+ * @param constructor  the constructor chosen for instantiation
+ * @param dependencies the bean classes resolved for each constructor parameter, in parameter order
+ */
+public record BeanDefinition(Class<?> beanClass, Constructor<?> constructor, List<Class<?>> dependencies) {
+}
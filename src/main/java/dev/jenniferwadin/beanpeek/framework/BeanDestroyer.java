@@ -0,0 +1,233 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the @MiniPreDestroy methods of a container's singletons at shutdown.
+ * - Reverse dependency order: a bean is destroyed only after every bean that depends on
+ *   it is done, so no bean sees its dependencies torn down while it cleans up.
+ * - Beans whose dependents are done are destroyed in parallel, each on its own virtual thread.
+ * - Every bean has beanTimeout to finish, and the whole shutdown has timeout. A bean that
+ *   exceeds either is interrupted and reported as timed out; its dependencies go ahead
+ *   without it. Beans that have not started when the deadline passes are skipped.
+ * Beans without @MiniPreDestroy methods take no thread, and are left out of the report,
+ * but still keep their dependencies waiting for the beans that depend on them.
+ */
+@Slf4j
+final class BeanDestroyer {
+
+    private final StartupRecorder recorder;
+    private final long beanTimeoutNanos;
+    private final long timeoutNanos;
+
+    BeanDestroyer(StartupRecorder recorder, long beanTimeoutMillis, long timeoutMillis) {
+        this.recorder = recorder;
+        this.beanTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(beanTimeoutMillis);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    private record Running(DestroyTask task, Future<?> future, long startNanos) {
+    }
+
+    /**
+     * @param instances    the (unproxied) singletons, keyed by bean class
+     * @param dependencies the bean classes each bean was constructed with
+     */
+    ShutdownReport destroy(Map<Class<?>, Object> instances, Map<Class<?>, List<Class<?>>> dependencies) {
+        return destroy(instances, dependencies, System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * Like destroy(instances, dependencies), but with a deadline shared with other work
+     * instead of the timeout.
+     *
+     * @param deadline the System.nanoTime() by which shutdown has to be done
+     */
+    ShutdownReport destroy(Map<Class<?>, Object> instances, Map<Class<?>, List<Class<?>>> dependencies, long deadline) {
+        long start = System.nanoTime();
+
+        // How many beans still have to be destroyed before each bean
+        Map<Class<?>, Integer> pendingDependents = new HashMap<>();
+        for (Class<?> beanClass : instances.keySet()) {
+            pendingDependents.putIfAbsent(beanClass, 0);
+            for (Class<?> dependency : dependenciesOf(beanClass, instances, dependencies)) {
+                pendingDependents.merge(dependency, 1, Integer::sum);
+            }
+        }
+        Deque<Class<?>> ready = new ArrayDeque<>();
+        for (Class<?> beanClass : instances.keySet()) {
+            if (pendingDependents.get(beanClass) == 0) ready.add(beanClass);
+        }
+
+        BlockingQueue<Class<?>> finished = new LinkedBlockingQueue<>();
+        Map<Class<?>, Running> running = new LinkedHashMap<>();
+        Map<Class<?>, BeanShutdown> results = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("beanpeek-shutdown-", 0).factory());
+        try {
+            while (!ready.isEmpty() || !running.isEmpty()) {
+                if (System.nanoTime() - deadline >= 0) break;
+
+                while (!ready.isEmpty()) {
+                    Class<?> beanClass = ready.poll();
+                    List<Method> methods = preDestroyMethods(instances.get(beanClass));
+                    if (methods.isEmpty()) {
+                        release(beanClass, instances, dependencies, pendingDependents, ready);
+                        continue;
+                    }
+                    DestroyTask task = new DestroyTask(beanClass, instances.get(beanClass), methods, finished);
+                    running.put(beanClass, new Running(task, executor.submit(task), System.nanoTime()));
+                    results.put(beanClass, null);
+                }
+                if (running.isEmpty()) continue;
+
+                long now = System.nanoTime();
+                long wait = deadline - now;
+                for (Running bean : running.values()) {
+                    wait = Math.min(wait, bean.startNanos() + beanTimeoutNanos - now);
+                }
+                Class<?> done = finished.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                if (done != null) {
+                    Running bean = running.remove(done);
+                    if (bean != null) {
+                        results.put(done, bean.task().result());
+                        release(done, instances, dependencies, pendingDependents, ready);
+                    }
+                    continue;
+                }
+
+                now = System.nanoTime();
+                for (Iterator<Map.Entry<Class<?>, Running>> it = running.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Class<?>, Running> entry = it.next();
+                    Running bean = entry.getValue();
+                    if (now - (bean.startNanos() + beanTimeoutNanos) >= 0) {
+                        results.put(entry.getKey(), timedOut(entry.getKey(), bean, now, "per-bean timeout"));
+                        it.remove();
+                        release(entry.getKey(), instances, dependencies, pendingDependents, ready);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Shutdown interrupted");
+        } finally {
+            long now = System.nanoTime();
+            running.forEach((beanClass, bean) -> results.put(beanClass, timedOut(beanClass, bean, now, "shutdown deadline")));
+            // Never wait for timed-out beans: their threads are interrupted and abandoned
+            executor.shutdownNow();
+        }
+
+        for (Class<?> beanClass : instances.keySet()) {
+            if (!results.containsKey(beanClass) && !preDestroyMethods(instances.get(beanClass)).isEmpty()) {
+                results.put(beanClass, new BeanShutdown(beanClass, BeanShutdown.Status.SKIPPED, 0, null));
+                log.warn("Skipped MiniPreDestroy of {}: shutdown deadline passed", beanClass.getSimpleName());
+            }
+        }
+        return new ShutdownReport(System.nanoTime() - start, List.copyOf(results.values()));
+    }
+
+    private static BeanShutdown timedOut(Class<?> beanClass, Running bean, long now, String limit) {
+        bean.future().cancel(true);
+        log.warn("MiniPreDestroy of {} exceeded the {}, continuing without it", beanClass.getSimpleName(), limit);
+        return new BeanShutdown(beanClass, BeanShutdown.Status.TIMED_OUT, now - bean.startNanos(), bean.task().failure);
+    }
+
+    /**
+     * Marks a bean as done: its dependencies have one dependent less to wait for.
+     */
+    private static void release(Class<?> beanClass, Map<Class<?>, Object> instances, Map<Class<?>, List<Class<?>>> dependencies,
+                                Map<Class<?>, Integer> pendingDependents, Deque<Class<?>> ready) {
+        for (Class<?> dependency : dependenciesOf(beanClass, instances, dependencies)) {
+            if (pendingDependents.merge(dependency, -1, Integer::sum) == 0) {
+                ready.add(dependency);
+            }
+        }
+    }
+
+    /**
+     * @return the distinct dependencies of a bean that are destroyed here (singletons other than itself)
+     */
+    private static List<Class<?>> dependenciesOf(Class<?> beanClass, Map<Class<?>, Object> instances,
+                                                 Map<Class<?>, List<Class<?>>> dependencies) {
+        List<Class<?>> result = new ArrayList<>();
+        for (Class<?> dependency : new LinkedHashSet<>(dependencies.getOrDefault(beanClass, List.of()))) {
+            if (dependency != beanClass && instances.containsKey(dependency)) {
+                result.add(dependency);
+            }
+        }
+        return result;
+    }
+
+    private static List<Method> preDestroyMethods(Object instance) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : instance.getClass().getDeclaredMethods()) {
+            if (method.isAnnotationPresent(MiniPreDestroy.class)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private final class DestroyTask implements Runnable {
+        private final Class<?> beanClass;
+        private final Object instance;
+        private final List<Method> methods;
+        private final BlockingQueue<Class<?>> finished;
+        private volatile String failure;
+        private volatile long nanos;
+
+        DestroyTask(Class<?> beanClass, Object instance, List<Method> methods, BlockingQueue<Class<?>> finished) {
+            this.beanClass = beanClass;
+            this.instance = instance;
+            this.methods = methods;
+            this.finished = finished;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            BeanPhaseEvent event = recorder.begin(StartupPhase.PRE_DESTROY, beanClass);
+            try {
+                for (Method method : methods) {
+                    try {
+                        method.setAccessible(true);
+                        log.info("Running MiniPreDestroy: {}.{}", beanClass.getSimpleName(), method.getName());
+                        method.invoke(instance);
+                    } catch (InvocationTargetException | IllegalAccessException e) {
+                        Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                        log.error("Failed to execute MiniPreDestroy method {}: {}", method.getName(), cause.getMessage());
+                        if (failure == null) failure = method.getName() + ": " + cause;
+                    }
+                }
+            } finally {
+                recorder.end(event);
+                nanos = System.nanoTime() - start;
+                finished.add(beanClass);
+            }
+        }
+
+        BeanShutdown result() {
+            return new BeanShutdown(beanClass, failure == null ? BeanShutdown.Status.COMPLETED : BeanShutdown.Status.FAILED,
+                    nanos, failure);
+        }
+    }
+}
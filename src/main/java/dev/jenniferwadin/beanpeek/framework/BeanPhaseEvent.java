@@ -0,0 +1,71 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events for the phases of the bean lifecycle, one event type per phase.
+ * They are recorded with "java -XX:StartFlightRecording" (or jcmd JFR.start) and show up
+ * in JDK Mission Control under "Beanpeek". The time and the bean class are the only
+ * recorded fields; the transient fields are for StartupRecorder's own bookkeeping.
+ * While no recording runs, begin() and commit() do nothing.
+ */
+@Category("Beanpeek")
+abstract class BeanPhaseEvent extends Event {
+
+    @Label("Bean Class")
+    Class<?> beanClass;
+
+    transient StartupPhase phase;
+    transient long startNanos;
+
+    @Name("beanpeek.Scan")
+    @Label("Scan")
+    @Description("Finding the @MiniService classes of a package")
+    static class Scan extends BeanPhaseEvent {
+        @Label("Package")
+        String basePackage;
+
+        @Label("Bean Count")
+        int beanCount;
+    }
+
+    @Name("beanpeek.Resolve")
+    @Label("Resolve")
+    @Description("Selecting the constructors of beans; without a bean class, a whole dependency graph")
+    static class Resolve extends BeanPhaseEvent {
+    }
+
+    @Name("beanpeek.Instantiate")
+    @Label("Instantiate")
+    @Description("Running a bean constructor")
+    static class Instantiate extends BeanPhaseEvent {
+    }
+
+    @Name("beanpeek.Inject")
+    @Label("Inject")
+    @Description("Setting the @MiniConfigProperty fields of a bean")
+    static class Inject extends BeanPhaseEvent {
+    }
+
+    @Name("beanpeek.PostConstruct")
+    @Label("Post Construct")
+    @Description("Running the @MiniPostConstruct methods of a bean")
+    static class PostConstruct extends BeanPhaseEvent {
+    }
+
+    @Name("beanpeek.Proxy")
+    @Label("Proxy")
+    @Description("Creating the proxy of a bean")
+    static class Proxy extends BeanPhaseEvent {
+    }
+
+    @Name("beanpeek.PreDestroy")
+    @Label("Pre Destroy")
+    @Description("Running the @MiniPreDestroy methods of a bean")
+    static class PreDestroy extends BeanPhaseEvent {
+    }
+}
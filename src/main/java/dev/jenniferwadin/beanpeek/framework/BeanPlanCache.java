@@ -0,0 +1,255 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import dev.jenniferwadin.beanpeek.processor.MiniServiceIndexProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Stores the resolved creation order of a scan on disk, so the next start with the same
+ * classpath can register the beans without scanning the package or resolving constructors.
+ * How it works:
+ * - A plan is the list of BeanDefinitions of one scan: every bean class in creation order,
+ *   its chosen constructor, and the bean classes passed to it.
+ * - It is stored in a small binary file named after a SHA-256 key of the classpath, the
+ *   scanned package, the scan mode and the beans registered before the scan. Of the
+ *   classpath, the key covers path, size and last modified of every jar and, in class
+ *   directories, of the @MiniService index and the files of the scanned package only:
+ *   a scan finds nothing else, so the key costs one stat per file of the package rather
+ *   than a walk of the whole classpath. Any change gives a new key, so an outdated plan
+ *   is never found.
+ * - Loading checks the plan only as far as replaying needs: each class must still load,
+ *   still be a @MiniService, and still have the constructor. If not, the plan is deleted
+ *   and the package is scanned as usual.
+ * Only scans that resolved every candidate are stored; the injection points, lifecycle
+ * methods and proxies are still found by CompiledBeanFactory and ProxyFactory, which
+ * need the loaded members anyway.
+ */
+@Slf4j
+final class BeanPlanCache {
+
+    private static final int MAGIC = 0x42504C4E; // "BPLN"
+    private static final int VERSION = 1;
+
+    private final Path directory;
+
+    BeanPlanCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the stored plan for this scan, with all classes loaded (not initialized),
+     *         or null if there is none or it no longer matches the classes
+     */
+    List<BeanDefinition> load(String basePackage, String scanMode, Set<Class<?>> registeredBeans, ClassLoader classLoader) {
+        String key = key(basePackage, scanMode, registeredBeans, classLoader);
+        Path file = directory.resolve(key + ".plan");
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readUnsignedShort() != VERSION || !key.equals(input.readUTF())) {
+                log.warn("Ignoring unreadable bean plan {}", file);
+                return null;
+            }
+            int beanCount = input.readInt();
+            List<BeanDefinition> plan = new ArrayList<>(beanCount);
+            for (int i = 0; i < beanCount; i++) {
+                Class<?> beanClass = Class.forName(input.readUTF(), false, classLoader);
+                Class<?>[] parameterTypes = readClasses(input, classLoader).toArray(Class<?>[]::new);
+                List<Class<?>> dependencies = readClasses(input, classLoader);
+                if (!beanClass.isAnnotationPresent(MiniService.class)) {
+                    throw new IllegalStateException(beanClass.getName() + " is no longer a @MiniService");
+                }
+                Constructor<?> constructor = beanClass.getDeclaredConstructor(parameterTypes);
+                plan.add(new BeanDefinition(beanClass, constructor, List.copyOf(dependencies)));
+            }
+            log.info("Replaying bean plan for {}: {} beans", basePackage, plan.size());
+            return plan;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | ReflectiveOperationException | LinkageError | IllegalStateException e) {
+            log.warn("Discarding outdated bean plan {}: {}", file, e.toString());
+            // Overwritten by the next store if it cannot be deleted
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the plan of a scan. The file is replaced atomically where the file system
+     * allows it, so concurrent starts read either the old plan or the new one.
+     */
+    void store(String basePackage, String scanMode, Set<Class<?>> registeredBeans, ClassLoader classLoader,
+               List<BeanDefinition> plan) {
+        String key = key(basePackage, scanMode, registeredBeans, classLoader);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeInt(MAGIC);
+                output.writeShort(VERSION);
+                output.writeUTF(key);
+                output.writeInt(plan.size());
+                for (BeanDefinition definition : plan) {
+                    output.writeUTF(definition.beanClass().getName());
+                    writeClasses(output, List.of(definition.constructor().getParameterTypes()));
+                    writeClasses(output, definition.dependencies());
+                }
+            }
+            Path file = directory.resolve(key + ".plan");
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.info("Stored bean plan for {}: {} beans", basePackage, plan.size());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to store bean plan in {}: {}", directory, e.getMessage());
+        } finally {
+            // Gone already if it was moved into place
+            if (temp != null) deleteQuietly(temp);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Nothing reads it
+        }
+    }
+
+    private static void writeClasses(DataOutputStream output, List<Class<?>> classes) throws IOException {
+        output.writeShort(classes.size());
+        for (Class<?> clazz : classes) {
+            output.writeUTF(clazz.getName());
+        }
+    }
+
+    private static List<Class<?>> readClasses(DataInputStream input, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        int count = input.readUnsignedShort();
+        List<Class<?>> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            classes.add(Class.forName(input.readUTF(), false, classLoader));
+        }
+        return classes;
+    }
+
+    /**
+     * @return a hex SHA-256 of everything the plan was resolved from
+     */
+    static String key(String basePackage, String scanMode, Set<Class<?>> registeredBeans, ClassLoader classLoader) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, basePackage);
+        update(digest, scanMode);
+        Set<String> registered = new TreeSet<>();
+        registeredBeans.forEach(clazz -> registered.add(clazz.getName()));
+        registered.forEach(name -> update(digest, name));
+        String packagePath = basePackage.replace('.', '/');
+        for (Path entry : classPathEntries(classLoader, digest)) {
+            fingerprint(digest, entry, packagePath);
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    /**
+     * @return the entries of java.class.path, followed by those of the URLClassLoaders
+     *         between the given loader and the system class loader; URLs that are not
+     *         files cannot be fingerprinted, and only go into the digest as they are
+     */
+    private static Set<Path> classPathEntries(ClassLoader classLoader, MessageDigest digest) {
+        Set<Path> entries = new LinkedHashSet<>();
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isBlank()) entries.add(Path.of(entry).toAbsolutePath());
+        }
+        for (ClassLoader loader = classLoader; loader instanceof URLClassLoader urlLoader; loader = loader.getParent()) {
+            for (URL url : urlLoader.getURLs()) {
+                try {
+                    if ("file".equals(url.getProtocol())) {
+                        entries.add(Path.of(url.toURI()).toAbsolutePath());
+                        continue;
+                    }
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // Hashed as it is
+                }
+                update(digest, url.toString());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * A jar counts as a whole; of a class directory, only the @MiniService index and the
+     * package directory with its subpackages count, since a scan reads nothing else there.
+     */
+    private static void fingerprint(MessageDigest digest, Path entry, String packagePath) {
+        update(digest, entry.toString());
+        if (!Files.isDirectory(entry)) {
+            attributes(digest, entry);
+            return;
+        }
+        attributes(digest, entry.resolve(MiniServiceIndexProcessor.INDEX_LOCATION));
+        Path packageDirectory = entry.resolve(packagePath);
+        if (!Files.isDirectory(packageDirectory)) {
+            update(digest, "no package");
+            return;
+        }
+        try (Stream<Path> files = Files.walk(packageDirectory)) {
+            files.filter(Files::isRegularFile)
+                    .sorted(Comparator.naturalOrder())
+                    .forEach(file -> {
+                        update(digest, entry.relativize(file).toString());
+                        attributes(digest, file);
+                    });
+        } catch (IOException | UncheckedIOException e) {
+            update(digest, "unreadable");
+        }
+    }
+
+    private static void attributes(MessageDigest digest, Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            update(digest, attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            update(digest, "missing");
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,199 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free pool of bean instances, used for beans with pooled scope.
+ * How it works:
+ * - Idle instances live in a fixed array of slots, one slot per possible instance.
+ *   Taking an instance is a compare-and-set of its slot to null, returning one is a
+ *   compare-and-set of an empty slot to the instance. No locks are taken.
+ * - Every thread has a home slot: the slot it returned its last instance to.
+ *   Borrowing checks that slot first, so a thread usually gets back the same
+ *   (cache-warm) instance it used before, and threads rarely contend for a slot.
+ * - When no instance is idle, a new one is created as long as fewer than maxSize exist.
+ *   Otherwise the borrower spins briefly, then parks with a growing back-off,
+ *   until an instance is returned or maxWait has passed.
+ * Since at most maxSize instances are ever created, a returned instance always finds an empty slot.
+ * The first instance is created by the constructor, so creation errors surface at registration.
+ */
+public final class BeanPool<T> implements ScopedBean {
+
+    private static final int SPINS_BEFORE_PARKING = 64;
+    private static final long MIN_PARK_NANOS = 1_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final Class<?> beanClass;
+    private final Supplier<T> factory;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicInteger created = new AtomicInteger();
+    private final ThreadLocal<int[]> homeSlot;
+    private final Class<?> instanceClass;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder affinityHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanosSeen = new AtomicLong();
+
+    /**
+     * @param beanClass     the bean class, used in messages
+     * @param maxSize       the maximum number of instances
+     * @param maxWaitMillis how long a borrow waits when every instance is in use
+     * @param factory       creates a fully initialized instance
+     */
+    public BeanPool(Class<?> beanClass, int maxSize, long maxWaitMillis, Supplier<T> factory) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size of " + beanClass.getSimpleName() + " must be at least 1");
+        }
+        this.beanClass = beanClass;
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.maxWaitNanos = Math.max(0, maxWaitMillis) * 1_000_000;
+        this.slots = new AtomicReferenceArray<>(maxSize);
+        this.homeSlot = ThreadLocal.withInitial(() -> new int[]{(int) (Thread.currentThread().threadId() % maxSize)});
+
+        T first = tryCreate();
+        this.instanceClass = first.getClass();
+        slots.set(0, first);
+    }
+
+    /**
+     * Takes an idle instance, creates one if the pool is not full yet, or waits for one to be returned.
+     *
+     * @return the borrowed instance; return it with release
+     * @throws IllegalStateException if no instance became available within maxWaitMillis
+     */
+    public T borrow() {
+        int[] home = homeSlot.get();
+        T instance = take(home[0]);
+        if (instance != null) {
+            hits.increment();
+            affinityHits.increment();
+            return instance;
+        }
+        instance = takeAny(home[0]);
+        if (instance != null) {
+            hits.increment();
+            return instance;
+        }
+
+        misses.increment();
+        instance = tryCreate();
+        return instance != null ? instance : await(home[0]);
+    }
+
+    /**
+     * Returns a borrowed instance and makes its slot the calling thread's home slot.
+     */
+    public void release(T instance) {
+        int[] home = homeSlot.get();
+        for (int attempt = 0; ; attempt++) {
+            for (int i = 0; i < maxSize; i++) {
+                int slot = (home[0] + i) % maxSize;
+                if (slots.get(slot) == null && slots.compareAndSet(slot, null, instance)) {
+                    home[0] = slot;
+                    return;
+                }
+            }
+            // Every slot was filled while we scanned; one is being emptied by a concurrent borrow
+            if (attempt > 0) Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the current size, hit/miss counters and wait times of this pool
+     */
+    public PoolStats getStats() {
+        int idle = 0;
+        for (int i = 0; i < maxSize; i++) {
+            if (slots.get(i) != null) idle++;
+        }
+        return new PoolStats(maxSize, created.get(), idle,
+                hits.sum(), affinityHits.sum(), misses.sum(),
+                waits.sum(), totalWaitNanos.sum(), maxWaitNanosSeen.get(), timeouts.sum());
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    @Override
+    public Class<?> instanceClass() {
+        return instanceClass;
+    }
+
+    private T take(int slot) {
+        T instance = slots.get(slot);
+        return instance != null && slots.compareAndSet(slot, instance, null) ? instance : null;
+    }
+
+    private T takeAny(int home) {
+        for (int i = 1; i <= maxSize; i++) {
+            T instance = take((home + i) % maxSize);
+            if (instance != null) return instance;
+        }
+        return null;
+    }
+
+    /**
+     * @return a new instance, or null if maxSize instances exist already
+     */
+    private T tryCreate() {
+        int count;
+        do {
+            count = created.get();
+            if (count >= maxSize) return null;
+        } while (!created.compareAndSet(count, count + 1));
+
+        try {
+            return factory.get();
+        } catch (RuntimeException | Error e) {
+            created.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private T await(int home) {
+        waits.increment();
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+        long parkNanos = MIN_PARK_NANOS;
+
+        for (int spins = 0; ; spins++) {
+            T instance = takeAny(home);
+            if (instance == null) instance = tryCreate();
+            long now = System.nanoTime();
+            if (instance != null) {
+                recordWait(now - start);
+                return instance;
+            }
+            if (now - deadline >= 0) {
+                recordWait(now - start);
+                timeouts.increment();
+                throw new IllegalStateException("Timed out after " + maxWaitNanos / 1_000_000 + " ms waiting for a pooled "
+                        + beanClass.getSimpleName() + " (pool size " + maxSize + ")");
+            }
+            if (spins < SPINS_BEFORE_PARKING) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(Math.min(parkNanos, deadline - now));
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanosSeen.accumulateAndGet(nanos, Math::max);
+    }
+}
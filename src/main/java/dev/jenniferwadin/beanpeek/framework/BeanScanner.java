@@ -4,46 +4,95 @@ import dev.jenniferwadin.beanpeek.annotation.MiniService;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * BeanScanner manually scans a given package for classes annotated with @MiniService.
  * This scanner:
- * - Converts a Java package to a file system path.
- * - Locates .class files in the target directory.
- * - Loads each class dynamically using Class.forName().
+ * - Reads the compile-time @MiniService index when available (no scanning needed).
+ * - Otherwise scans the package and its subpackages with a ClassPathScanner, which reads
+ *   annotations from class file bytes (in directories and jars) and loads only the beans.
+ * - In DIRECTORY mode instead locates .class files in the package directory only, and
+ *   loads each class dynamically using Class.forName().
  * - Registers classes annotated with @MiniService into the BeanContainer.
- * Note: This approach works for unpacked classes (not inside jar files).
+ * - With "beanpeek.plan.cache.dir" set, stores each resolved scan in that directory
+ *   (see BeanPlanCache) and replays it on the next start with the same classpath,
+ *   skipping both scanning and constructor resolution.
+ * Note: DIRECTORY mode works for unpacked classes only (not inside jar files).
  */
 @Slf4j
 public class BeanScanner {
 
+    /**
+     * How packages are searched when the compile-time index does not list them.
+     */
+    public enum ScanMode {
+        /**
+         * Walks the package and its subpackages in directories and jars, and reads
+         * annotations from the class file bytes. Only beans are loaded.
+         */
+        CLASSPATH,
+        /**
+         * Lists the package directory only (no subpackages, no jars) and loads
+         * every class with Class.forName().
+         */
+        DIRECTORY
+    }
+
+    private static final String PLAN_CACHE_DIR = "beanpeek.plan.cache.dir";
+
     private final BeanContainer beanContainer;
+    private final ScanMode scanMode;
+    private final BeanPlanCache planCache;
 
     public BeanScanner(BeanContainer beanContainer) {
+        this(beanContainer, ScanMode.CLASSPATH);
+    }
+
+    public BeanScanner(BeanContainer beanContainer, ScanMode scanMode) {
         this.beanContainer = beanContainer;
+        this.scanMode = scanMode;
+        String planCacheDir = beanContainer.getConfiguration().getString(PLAN_CACHE_DIR, "");
+        this.planCache = planCacheDir.isEmpty() ? null : new BeanPlanCache(Path.of(planCacheDir));
     }
 
     /**
      * Scans the given base package for classes annotated with @MiniService.
-     * For each discovered class:
-     * - Attempts to register the bean via the BeanContainer.
-     * - If registration fails due to missing dependencies, the method retries
-     *   registration until all dependencies are satisfied or no further progress
-     *   can be made.
+     * The discovered classes are resolved into a DependencyGraph first, and the
+     * beans are then registered in topological order, each exactly once.
+     * Beans that cannot be created (missing dependencies, cycles, or beans that
+     * depend on those) are reported together in a single diagnostic.
      *
      * @param basePackage the package to scan (e.g. "com.example.myapp.services")
      */
     public void scanAndRegister(String basePackage) {
         try {
-            List<Class<?>> candidates = findCandidateClasses(basePackage);
-            if (candidates == null) return;
-            registerWithRetry(candidates);
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            Set<Class<?>> registeredBeans = Set.copyOf(beanContainer.getRegisteredBeanClasses());
+            StartupRecorder recorder = beanContainer.getStartupRecorder();
+            BeanPhaseEvent.Scan scan = (BeanPhaseEvent.Scan) recorder.begin(StartupPhase.SCAN, null);
+            List<BeanDefinition> plan = planCache == null ? null
+                    : planCache.load(basePackage, scanMode.name(), registeredBeans, classLoader);
+            List<Class<?>> candidates = plan != null ? null : findCandidateClasses(basePackage, classLoader);
+            scan.basePackage = basePackage;
+            scan.beanCount = plan != null ? plan.size() : candidates == null ? 0 : candidates.size();
+            recorder.end(scan);
+
+            if (plan != null) {
+                beanContainer.registerBeans(plan);
+            } else if (candidates != null) {
+                List<BeanDefinition> creationOrder = registerInDependencyOrder(candidates);
+                if (planCache != null && creationOrder != null) {
+                    planCache.store(basePackage, scanMode.name(), registeredBeans, classLoader, creationOrder);
+                }
+            }
         } catch (Exception e) {
             log.error("Failed to scan package {}: {}", basePackage, e.getMessage());
         }
@@ -51,50 +100,95 @@ public class BeanScanner {
     }
 
     /**
-     * Attempts to register all candidate classes into the BeanContainer.
-     * The method will retry registration until all resolvable beans have been
-     * successfully registered, or no progress can be made due to unsatisfied
-     * dependencies.
+     * Builds the dependency graph for the candidates and registers every
+     * resolvable bean in creation order.
      *
      * @param candidates the list of classes to register
+     * @return the creation order, or null if some candidates could not be resolved
      */
-    private void registerWithRetry(List<Class<?>> candidates) {
-        boolean progress;
-        do {
-            progress = false;
-            Iterator<Class<?>> iterator = candidates.iterator();
-
-            while (iterator.hasNext()) {
-                Class<?> clazz = iterator.next();
-                boolean success = beanContainer.tryRegisterBean(clazz);
-
-                if (success) {
-                    iterator.remove();
-                    progress = true;
-                }
-            }
+    private List<BeanDefinition> registerInDependencyOrder(List<Class<?>> candidates) {
+        StartupRecorder recorder = beanContainer.getStartupRecorder();
+        BeanPhaseEvent resolve = recorder.begin(StartupPhase.RESOLVE, null);
+        DependencyGraph graph = new DependencyGraph(candidates, beanContainer.getRegisteredBeanClasses());
+        recorder.end(resolve);
 
-            if (!progress && !candidates.isEmpty()) {
-                log.error("Could not resolve dependencies for remaining beans: ");
-                for (Class<?> c : candidates) {
-                    log.error(" - {}", c.getSimpleName());
-                }
-                break;
-            }
-        } while (!candidates.isEmpty());
+        beanContainer.registerBeans(graph.getCreationOrder());
+
+        DependencyDiagnostic diagnostic = graph.getDiagnostic();
+        if (diagnostic.hasProblems()) {
+            log.error(diagnostic.toString());
+            return null;
+        }
+        return graph.getCreationOrder();
     }
 
     /**
      * Finds all classes in the given package that are annotated with @MiniService.
-     * This implementation only works with unpacked .class files on the file system.
+     * The compile-time index (see MiniServiceIndexProcessor) is used when it lists
+     * any bean in the package or its subpackages; only the indexed beans are loaded.
+     * Otherwise the package is scanned according to the ScanMode.
      *
      * @param basePackage the base package to scan
      * @return a list of candidate classes to be registered as beans
      * @throws Exception if scanning fails (e.g. invalid path or class loading errors)
      */
-    private static List<Class<?>> findCandidateClasses(String basePackage) throws URISyntaxException, ClassNotFoundException {
+    private List<Class<?>> findCandidateClasses(String basePackage, ClassLoader classLoader)
+            throws URISyntaxException, ClassNotFoundException, IOException {
+        List<Class<?>> indexed = findIndexedClasses(basePackage, classLoader);
+        if (indexed != null) {
+            return indexed;
+        }
+
+        if (scanMode == ScanMode.DIRECTORY) {
+            return scanDirectory(basePackage, classLoader);
+        }
+        List<Class<?>> candidates = new ClassPathScanner(classLoader).findAnnotatedClasses(basePackage, MiniService.class);
+        if (candidates.isEmpty()) {
+            log.warn("No @MiniService classes found in package {}", basePackage);
+        }
+        return candidates;
+    }
+
+    /**
+     * Loads the @MiniService classes listed in the compile-time index.
+     * Classes are loaded without being initialized.
+     *
+     * @return the indexed classes, or null if the index is missing or has no entry for the package
+     */
+    private static List<Class<?>> findIndexedClasses(String basePackage, ClassLoader classLoader) {
+        MiniServiceIndex index = MiniServiceIndex.load(classLoader);
+        if (!index.isPresent()) {
+            log.debug("No MiniService index found, scanning package {}", basePackage);
+            return null;
+        }
+
+        List<String> classNames = index.getClassNames(basePackage);
+        if (classNames.isEmpty()) {
+            log.debug("MiniService index has no entries for {}, scanning package", basePackage);
+            return null;
+        }
+
+        List<Class<?>> candidates = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                Class<?> clazz = Class.forName(className, false, classLoader);
+                if (clazz.isAnnotationPresent(MiniService.class)) {
+                    candidates.add(clazz);
+                }
+            } catch (ClassNotFoundException e) {
+                log.warn("Skipping stale MiniService index entry: {}", className);
+            }
+        }
+        log.info("Found {} beans in MiniService index for {}", candidates.size(), basePackage);
+        return candidates;
+    }
+
+    /**
+     * Scans the package directory for classes annotated with @MiniService.
+     * This implementation only works with unpacked .class files on the file system.
+     */
+    private static List<Class<?>> scanDirectory(String basePackage, ClassLoader classLoader) throws URISyntaxException, ClassNotFoundException {
         String path = basePackage.replace('.', '/');
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         URL resource = classLoader.getResource(path);
 
         if (resource == null) {
@@ -0,0 +1,32 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * How destroying one bean went at shutdown.
+ *
+ * @param beanClass the bean
+ * @param status    the outcome
+ * @param nanos     time spent running its @MiniPreDestroy methods (up to the timeout); 0 if skipped
+ * @param failure   the message of the first failed @MiniPreDestroy method, or null
+ */
+public record BeanShutdown(Class<?> beanClass, Status status, long nanos, String failure) {
+
+    public enum Status {
+        /**
+         * All @MiniPreDestroy methods returned.
+         */
+        COMPLETED,
+        /**
+         * A @MiniPreDestroy method threw an exception; the others still ran.
+         */
+        FAILED,
+        /**
+         * The methods did not finish within the per-bean timeout or the overall deadline;
+         * they were interrupted and shutdown went on without them.
+         */
+        TIMED_OUT,
+        /**
+         * Not started, because the overall deadline had passed.
+         */
+        SKIPPED
+    }
+}
@@ -0,0 +1,22 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How long creating one bean took at startup, phase by phase.
+ * All times are wall-clock nanoseconds. With parallel startup several beans are created
+ * at once, so pathNanos (not the sum of selfNanos) is what a bean adds to startup time.
+ *
+ * @param beanClass      the bean
+ * @param dependencies   the beans passed to its constructor
+ * @param phaseNanos     time spent in each phase that ran (resolve, instantiate, inject, post-construct, proxy)
+ * @param selfNanos      the sum of phaseNanos
+ * @param pathNanos      selfNanos plus the pathNanos of the slowest dependency: the longest
+ *                       chain of bean creations that ends with this bean
+ * @param onCriticalPath whether the bean is on the longest such chain of all beans
+ */
+public record BeanStartupTiming(Class<?> beanClass, List<Class<?>> dependencies,
+                                Map<StartupPhase, Long> phaseNanos,
+                                long selfNanos, long pathNanos, boolean onCriticalPath) {
+}
@@ -0,0 +1,108 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps every supertype and interface of a registered bean to the beans that can be
+ * assigned to it, so lookups by interface or superclass are a single map access.
+ * The index is built at registration time:
+ * - The full type hierarchy of each class is computed once and cached in a ClassValue.
+ * - The bean is added under every type in that hierarchy that the registered
+ *   instance (which may be a proxy) is actually an instance of.
+ * Beans are kept in registration order, so lookups are deterministic.
+ * The index is safe for concurrent use: each type maps to an append-only queue of beans,
+ * so adding a bean costs the same however many beans share a supertype (every bean has
+ * Object). Lookups never lock: they return an immutable snapshot of the queue, which is
+ * taken again only after beans were added to that type.
+ */
+class BeanTypeIndex {
+
+    /**
+     * A registered bean together with the class it was registered under.
+     * For scoped beans, instance is the ScopedBean that creates or hands out the instances.
+     */
+    record Entry(Class<?> beanClass, Object instance) {
+    }
+
+    private static final ClassValue<List<Class<?>>> TYPE_HIERARCHY = new ClassValue<>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> hierarchy = new LinkedHashSet<>();
+            collect(type, hierarchy);
+            return List.copyOf(hierarchy);
+        }
+
+        private void collect(Class<?> type, Set<Class<?>> hierarchy) {
+            if (type == null || !hierarchy.add(type)) return;
+            collect(type.getSuperclass(), hierarchy);
+            for (Class<?> implemented : type.getInterfaces()) {
+                collect(implemented, hierarchy);
+            }
+        }
+    };
+
+    /**
+     * The beans of one type. A lookup takes a new snapshot when the current one holds fewer
+     * beans than were added, so it never misses a bean that was added before it began.
+     */
+    private static final class Beans {
+        private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile List<Entry> snapshot = List.of();
+
+        void add(Entry entry) {
+            entries.add(entry);
+            count.incrementAndGet();
+        }
+
+        List<Entry> snapshot() {
+            List<Entry> current = snapshot;
+            if (current.size() < count.get()) {
+                current = List.copyOf(entries);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private final ConcurrentMap<Class<?>, Beans> beansByType = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a bean under every type of its class hierarchy that the instance can be assigned to.
+     */
+    void add(Class<?> beanClass, Object instance) {
+        add(beanClass, instance, instance.getClass());
+    }
+
+    /**
+     * Adds a bean under every type of its class hierarchy that instances of instanceClass
+     * can be assigned to. Used for scoped beans, where the registered object is the scope
+     * and the instances are created later.
+     */
+    void add(Class<?> beanClass, Object registered, Class<?> instanceClass) {
+        Entry entry = new Entry(beanClass, registered);
+        Set<Class<?>> types = new LinkedHashSet<>(TYPE_HIERARCHY.get(beanClass));
+        types.addAll(TYPE_HIERARCHY.get(instanceClass));
+
+        for (Class<?> type : types) {
+            if (type.isAssignableFrom(instanceClass)) {
+                beansByType.computeIfAbsent(type, unused -> new Beans()).add(entry);
+            }
+        }
+    }
+
+    /**
+     * @return the beans assignable to the given type, in registration order; empty if there are none
+     */
+    List<Entry> get(Class<?> type) {
+        Beans beans = beansByType.get(type);
+        return beans == null ? List.of() : beans.snapshot();
+    }
+}
@@ -0,0 +1,311 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded concurrent cache with a W-TinyLFU eviction policy, used by the CacheInterceptor.
+ * How it works:
+ * - Values live in a ConcurrentHashMap; a hit is a single map read and never blocks.
+ * - New entries enter a small LRU window (1% of the size). Entries pushed out of the
+ *   window join the main area only if the FrequencySketch says they are asked for more
+ *   often than the entry main would evict for them; otherwise they are evicted
+ *   themselves. This keeps one-off keys from flushing popular ones.
+ * - The main area is a segmented LRU: entries start on probation and move to the
+ *   protected segment (80% of main) when they are hit again.
+ * - The policy (the LRU lists and the sketch) is guarded by one lock. A hit only
+ *   records itself if the lock is free, so readers never wait for it; under heavy
+ *   contention some hits are not counted towards recency and frequency.
+ * - A miss is loaded once per key: concurrent callers wait for the first caller's load.
+ *   An invalidation during a load keeps the loaded value out of the cache.
+ * - With a TTL, an entry older than ttl counts as a miss and is loaded again.
+ */
+final class BoundedCache<K, V> {
+
+    /**
+     * Computes the value of a missing key.
+     */
+    @FunctionalInterface
+    interface Loader<V> {
+        V load() throws Throwable;
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long writeNanos;
+        int segment;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long writeNanos) {
+            this.key = key;
+            this.value = value;
+            this.writeNanos = writeNanos;
+        }
+    }
+
+    /**
+     * A doubly linked access-order list, least recently used first.
+     */
+    private static final class AccessOrder<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        int size;
+
+        void addLast(Node<K, V> node) {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) head = node;
+            else tail.next = node;
+            tail = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) head = node.next;
+            else node.previous.next = node.next;
+            if (node.next == null) tail = node.previous;
+            else node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (tail != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    private final int maximumSize;
+    private final int maximumWindow;
+    private final int maximumProtected;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize the maximum number of entries (at least 1)
+     * @param ttlMillis   how long an entry is valid after it was loaded; 0 for no limit
+     */
+    BoundedCache(int maximumSize, long ttlMillis) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1, was " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWindow = Math.max(1, maximumSize / 100);
+        this.maximumProtected = (maximumSize - maximumWindow) * 4 / 5;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @return the cached value of the key, or the value the loader computes for it
+     *         (once, however many callers miss the key at the same time)
+     * @throws Throwable whatever the loader threw, to every caller that waited for it
+     */
+    V get(K key, Loader<V> loader) throws Throwable {
+        Node<K, V> node = data.get(key);
+        if (node != null && isFresh(node)) {
+            hits.increment();
+            recordHit(node);
+            return node.value;
+        }
+        misses.increment();
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inProgress = loading.putIfAbsent(key, load);
+        if (inProgress != null) {
+            return awaitLoad(inProgress);
+        }
+        try {
+            // Another caller's load may have finished since the lookup above
+            node = data.get(key);
+            if (node != null && isFresh(node)) {
+                load.complete(node.value);
+                return node.value;
+            }
+            long start = System.nanoTime();
+            V value;
+            try {
+                value = loader.load();
+            } catch (Throwable e) {
+                loadNanos.add(System.nanoTime() - start);
+                loadFailures.increment();
+                load.completeExceptionally(e);
+                throw e;
+            }
+            loadNanos.add(System.nanoTime() - start);
+            loads.increment();
+            if (value != null) {
+                put(key, value, load);
+            }
+            load.complete(value);
+            return value;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Removes the key. A load of the key that is running now is not cached.
+     */
+    void invalidate(Object key) {
+        policyLock.lock();
+        try {
+            loading.remove(key);
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                segment(node).remove(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Removes every key, including those being loaded now.
+     */
+    void invalidateAll() {
+        policyLock.lock();
+        try {
+            loading.clear();
+            for (Node<K, V> node : data.values()) {
+                segment(node).remove(node);
+            }
+            data.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    CacheStats stats() {
+        return new CacheStats(data.size(), hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(),
+                loadNanos.sum(), evictions.sum());
+    }
+
+    private boolean isFresh(Node<K, V> node) {
+        return ttlNanos == 0 || System.nanoTime() - node.writeNanos < ttlNanos;
+    }
+
+    private static <V> V awaitLoad(CompletableFuture<V> load) throws Throwable {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void recordHit(Node<K, V> node) {
+        if (!policyLock.tryLock()) return;
+        try {
+            // The node may have been evicted or invalidated since it was read
+            if (data.get(node.key) != node) return;
+            sketch.increment(node.key);
+            switch (node.segment) {
+                case WINDOW -> window.moveToLast(node);
+                case PROBATION -> {
+                    probation.remove(node);
+                    node.segment = PROTECTED;
+                    protectedSegment.addLast(node);
+                    if (protectedSegment.size > maximumProtected) {
+                        Node<K, V> demoted = protectedSegment.head;
+                        protectedSegment.remove(demoted);
+                        demoted.segment = PROBATION;
+                        probation.addLast(demoted);
+                    }
+                }
+                default -> protectedSegment.moveToLast(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void put(K key, V value, CompletableFuture<V> load) {
+        policyLock.lock();
+        try {
+            if (loading.get(key) != load) return; // invalidated while loading
+
+            sketch.increment(key);
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                // Replaces an expired value
+                node.value = value;
+                node.writeNanos = System.nanoTime();
+                return;
+            }
+            node = new Node<>(key, value, System.nanoTime());
+            node.segment = WINDOW;
+            window.addLast(node);
+            data.put(key, node);
+
+            if (window.size > maximumWindow) {
+                Node<K, V> candidate = window.head;
+                window.remove(candidate);
+                candidate.segment = PROBATION;
+                probation.addLast(candidate);
+            }
+            while (window.size + probation.size + protectedSegment.size > maximumSize) {
+                evictOne();
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * The candidate (the entry that just left the window) competes with the victim
+     * (the least recently used entry on probation): the less frequent one is evicted.
+     */
+    private void evictOne() {
+        Node<K, V> candidate = probation.tail;
+        Node<K, V> victim = probation.head;
+        if (candidate == null) {
+            evict(window.head);
+        } else if (candidate == victim || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evict(victim);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        segment(node).remove(node);
+        data.remove(node.key, node);
+        evictions.increment();
+    }
+
+    private AccessOrder<K, V> segment(Node<K, V> node) {
+        return switch (node.segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedSegment;
+        };
+    }
+}
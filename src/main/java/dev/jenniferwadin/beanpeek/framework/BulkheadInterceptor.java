@@ -0,0 +1,79 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniBulkhead;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the concurrent calls of methods annotated with @MiniBulkhead.
+ * Every limited method has its own BulkheadLimiter, also each overload (see MethodNames
+ * for how they are named in the statistics). Like the TimingInterceptor, the limiter is woven into
+ * the method's handle chain when the proxy is created: the permit is taken before the
+ * call and returned in a finally block, which also tells the limiter whether the call
+ * threw. A call allocates nothing.
+ */
+public class BulkheadInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle ACQUIRE;
+    private static final MethodHandle RELEASE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ACQUIRE = lookup.findVirtual(BulkheadLimiter.class, "acquire", MethodType.methodType(long.class));
+            RELEASE = lookup.findVirtual(BulkheadLimiter.class, "release",
+                    MethodType.methodType(void.class, Throwable.class, long.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<Method, BulkheadLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean appliesTo(Method method) {
+        return method.isAnnotationPresent(MiniBulkhead.class);
+    }
+
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle next) {
+        MiniBulkhead settings = method.getAnnotation(MiniBulkhead.class);
+        BulkheadLimiter limiter = limiters.computeIfAbsent(method, key -> new BulkheadLimiter(MethodNames.shortName(key),
+                settings.maxConcurrent(), settings.queueSize(), settings.maxWaitMillis(),
+                settings.adaptive(), settings.minLimit(), settings.maxLimit()));
+
+        MethodType type = next.type();
+        Class<?> returnType = type.returnType();
+        List<Class<?>> startAndParameters = new ArrayList<>();
+        startAndParameters.add(long.class);
+        startAndParameters.addAll(type.parameterList());
+
+        // (start, args...) -> result
+        MethodHandle body = MethodHandles.dropArguments(next, 0, long.class);
+        // (throwable, [result,] start, args...) -> [result], releasing the permit
+        MethodHandle release = RELEASE.bindTo(limiter);
+        MethodHandle cleanup;
+        if (returnType == void.class) {
+            cleanup = MethodHandles.dropArguments(release, 2, type.parameterList());
+        } else {
+            MethodHandle passResult = MethodHandles.dropArguments(
+                    MethodHandles.dropArguments(MethodHandles.identity(returnType), 0, Throwable.class), 2, startAndParameters);
+            cleanup = MethodHandles.foldArguments(passResult, 0, MethodHandles.dropArguments(release, 1, returnType));
+        }
+        return MethodHandles.foldArguments(MethodHandles.tryFinally(body, cleanup), ACQUIRE.bindTo(limiter));
+    }
+
+    /**
+     * @return the current limit, in-flight and waiting calls, and counters of every limited method, sorted by name
+     */
+    public Map<String, BulkheadStats> getStats() {
+        return MethodNames.byName(limiters, BulkheadLimiter::stats);
+    }
+}
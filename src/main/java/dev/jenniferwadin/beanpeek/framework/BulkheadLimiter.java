@@ -0,0 +1,165 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The concurrency limit of one @MiniBulkhead method.
+ * Permits:
+ * - A call takes a permit by raising inFlight with a compare-and-set, as long as it
+ *   stays within the limit; no lock is taken. Releasing is a decrement.
+ * - A call over the limit joins a bounded queue of parked threads, if there is room.
+ *   Every release wakes the first of them, which tries again; calls arriving meanwhile
+ *   may take the permit first. A call that times out leaves the queue and is rejected.
+ * Adaptive limit (a TCP Vegas-style estimate, with multiplicative decrease):
+ * - The lowest latency seen is taken as the latency without queueing. It is measured
+ *   again every PROBE_INTERVAL samples, in case the service got faster or slower for good.
+ * - From a sample's latency, limit * (1 - lowest / latency) estimates how many calls are
+ *   queued downstream. Few queued calls raise the limit; many lower it.
+ * - A failed call cuts the limit by 10%.
+ * - Samples taken while fewer than half the permits are used are ignored: they say
+ *   nothing about what a higher limit would do.
+ * The estimate is updated by one thread at a time; a call that finds it busy skips its
+ * sample rather than wait.
+ */
+final class BulkheadLimiter {
+
+    private static final int PROBE_INTERVAL = 1000;
+
+    private final String name;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final ReentrantLock estimateLock = new ReentrantLock();
+    private double estimatedLimit;
+    private long noLoadNanos = Long.MAX_VALUE;
+    private int samples;
+
+    BulkheadLimiter(String name, int maxConcurrent, int queueSize, long maxWaitMillis,
+                    boolean adaptive, int minLimit, int maxLimit) {
+        if (maxConcurrent < 1 || minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid @MiniBulkhead limits on " + name);
+        }
+        this.name = name;
+        this.queueSize = queueSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.adaptive = adaptive;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = adaptive ? Math.clamp(maxConcurrent, minLimit, maxLimit) : maxConcurrent;
+        this.estimatedLimit = limit;
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if there is room.
+     *
+     * @return the start time of the call, to pass to release
+     * @throws RejectedExecutionException if no permit could be had
+     */
+    long acquire() {
+        if (!tryAcquire() && !awaitPermit()) {
+            rejected.increment();
+            throw new RejectedExecutionException(name + " is at its limit of " + limit + " concurrent calls");
+        }
+        admitted.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns the permit taken by acquire, and feeds the call's latency to the adaptive limit.
+     *
+     * @param failure what the call threw, or null
+     */
+    void release(Throwable failure, long startNanos) {
+        int used = inFlight.getAndDecrement();
+        Thread next = waiters.peek();
+        if (next != null) LockSupport.unpark(next);
+
+        if (failure != null) failed.increment();
+        if (adaptive) {
+            sample(System.nanoTime() - startNanos, used, failure != null);
+        }
+    }
+
+    BulkheadStats stats() {
+        return new BulkheadStats(limit, inFlight.get(), waiting.get(), admitted.sum(), rejected.sum(), failed.sum());
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    private boolean awaitPermit() {
+        if (waiting.incrementAndGet() > queueSize) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            while (true) {
+                if (tryAcquire()) return true;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || current.isInterrupted()) return false;
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            waiters.remove(current);
+            waiting.decrementAndGet();
+            // Pass on a wake-up this thread may have taken from another waiter
+            Thread next = waiters.peek();
+            if (next != null && inFlight.get() < limit) LockSupport.unpark(next);
+        }
+    }
+
+    private void sample(long latencyNanos, int used, boolean dropped) {
+        if (!estimateLock.tryLock()) return;
+        try {
+            if (++samples % PROBE_INTERVAL == 0) {
+                noLoadNanos = latencyNanos;
+            }
+            noLoadNanos = Math.max(1, Math.min(noLoadNanos, latencyNanos));
+
+            double current = estimatedLimit;
+            double step = Math.max(1, Math.log10(current));
+            if (dropped) {
+                current = current * 0.9;
+            } else if (used * 2 >= current) {
+                double queued = current * (1 - (double) noLoadNanos / latencyNanos);
+                if (queued <= step) {
+                    current += 6 * step;
+                } else if (queued < 3 * step) {
+                    current += step;
+                } else if (queued > 6 * step) {
+                    current -= step;
+                }
+            }
+            estimatedLimit = Math.clamp(current, minLimit, maxLimit);
+            limit = (int) estimatedLimit;
+        } finally {
+            estimateLock.unlock();
+        }
+    }
+}
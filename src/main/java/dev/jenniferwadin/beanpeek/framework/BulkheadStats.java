@@ -0,0 +1,20 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * A point-in-time view of one @MiniBulkhead method.
+ *
+ * @param limit    the current limit of concurrent calls
+ * @param inFlight calls running now
+ * @param waiting  calls waiting for a slot now
+ * @param admitted calls that got a slot
+ * @param rejected calls rejected because the queue was full or the wait timed out
+ * @param failed   admitted calls that threw
+ */
+public record BulkheadStats(int limit, int inFlight, int waiting, long admitted, long rejected, long failed) {
+
+    @Override
+    public String toString() {
+        return String.format("limit=%d inFlight=%d waiting=%d admitted=%d rejected=%d failed=%d",
+                limit, inFlight, waiting, admitted, rejected, failed);
+    }
+}
@@ -0,0 +1,109 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniCacheable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the results of methods annotated with @MiniCacheable.
+ * Every cached method has its own BoundedCache with its own settings, also each overload
+ * (see MethodNames for how they are named in the statistics).
+ * The cache lookup is woven into the method's handle chain when the proxy is created.
+ * A call boxes its arguments into a list, which is the cache key; on a miss the rest
+ * of the chain is called with the same arguments.
+ */
+public class CacheInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle GET;
+
+    static {
+        try {
+            GET = MethodHandles.lookup().findVirtual(CachedMethod.class, "get",
+                    MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The per-method state bound into a cached method's chain.
+     *
+     * @param next the rest of the chain, as (Object[])Object
+     */
+    private record CachedMethod(BoundedCache<Object, Object> cache, MethodHandle next) {
+
+        Object get(Object[] arguments) throws Throwable {
+            return cache.get(Arrays.asList(arguments), () -> next.invokeExact(arguments));
+        }
+    }
+
+    private final Map<Method, BoundedCache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean appliesTo(Method method) {
+        return method.isAnnotationPresent(MiniCacheable.class) && method.getReturnType() != void.class;
+    }
+
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle next) {
+        MiniCacheable settings = method.getAnnotation(MiniCacheable.class);
+        BoundedCache<Object, Object> cache = caches.computeIfAbsent(method,
+                key -> new BoundedCache<>(settings.maximumSize(), settings.ttlMillis()));
+        CachedMethod cached = new CachedMethod(cache, MethodHandleChains.spread(next));
+        return GET.bindTo(cached)
+                .asCollector(Object[].class, method.getParameterCount())
+                .asType(next.type());
+    }
+
+    /**
+     * @return the statistics of every cached method, sorted by name
+     */
+    public Map<String, CacheStats> getStats() {
+        return MethodNames.byName(caches, BoundedCache::stats);
+    }
+
+    /**
+     * Removes the cached result of one call. A short name invalidates the call in every
+     * overload it names.
+     *
+     * @param method    the cached method, "ClassName.methodName" or its full name
+     * @param arguments the arguments of the call
+     * @throws IllegalArgumentException if no such method is cached
+     */
+    public void invalidate(String method, Object... arguments) {
+        List<Object> key = Arrays.asList(arguments);
+        caches(method).forEach(cache -> cache.invalidate(key));
+    }
+
+    /**
+     * Removes all cached results of a method.
+     *
+     * @param method the cached method, "ClassName.methodName" (all its overloads) or its full name
+     * @throws IllegalArgumentException if no such method is cached
+     */
+    public void invalidateAll(String method) {
+        caches(method).forEach(BoundedCache::invalidateAll);
+    }
+
+    /**
+     * Removes the cached results of every method.
+     */
+    public void invalidateAll() {
+        caches.values().forEach(BoundedCache::invalidateAll);
+    }
+
+    private List<BoundedCache<Object, Object>> caches(String method) {
+        List<Method> named = MethodNames.named(caches.keySet(), method);
+        if (named.isEmpty()) {
+            throw new IllegalArgumentException("No @MiniCacheable method " + method + "; cached: " + getStats().keySet());
+        }
+        return named.stream().map(caches::get).toList();
+    }
+}
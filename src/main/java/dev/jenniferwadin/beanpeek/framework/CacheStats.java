@@ -0,0 +1,46 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * A point-in-time view of one @MiniCacheable method's cache.
+ *
+ * @param size           results currently cached
+ * @param hits           calls answered from the cache
+ * @param misses         calls that had to load (or wait for another caller's load)
+ * @param loads          loads that returned a result
+ * @param loadFailures   loads that threw
+ * @param totalLoadNanos time spent loading, summed over all loads
+ * @param evictions      results removed to stay within the maximum size
+ */
+public record CacheStats(long size, long hits, long misses, long loads, long loadFailures,
+                         long totalLoadNanos, long evictions) {
+
+    /**
+     * @return the fraction of calls answered from the cache; 0 if there were none
+     */
+    public double hitRate() {
+        long calls = hits + misses;
+        return calls == 0 ? 0 : (double) hits / calls;
+    }
+
+    /**
+     * @return the fraction of calls that missed; 0 if there were none
+     */
+    public double missRate() {
+        long calls = hits + misses;
+        return calls == 0 ? 0 : (double) misses / calls;
+    }
+
+    /**
+     * @return the mean time of a load (failed ones included), in nanoseconds; 0 if none ran
+     */
+    public double meanLoadNanos() {
+        long count = loads + loadFailures;
+        return count == 0 ? 0 : (double) totalLoadNanos / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d hitRate=%.3f hits=%d misses=%d loads=%d failures=%d meanLoad=%.3fms evictions=%d",
+                size, hitRate(), hits, misses, loads, loadFailures, meanLoadNanos() / 1e6, evictions);
+    }
+}
@@ -0,0 +1,161 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads class-level annotations straight from class file bytes, without loading the class.
+ * Only the parts of the class file format (JVMS chapter 4) needed to reach the
+ * RuntimeVisibleAnnotations attribute of the class are parsed:
+ * constant pool, header, fields and methods are skipped over.
+ * A cheap pre-check runs first: if the annotation's descriptor does not occur in
+ * the constant pool at all, the rest of the file is not parsed.
+ */
+public final class ClassFileAnnotationReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.UTF_8);
+
+    private ClassFileAnnotationReader() {
+    }
+
+    /**
+     * @param classFile  the bytes of a .class file
+     * @param annotation the annotation type to look for (must be retained at runtime)
+     * @return true if the class itself is annotated with the given annotation
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static boolean isAnnotatedWith(byte[] classFile, Class<?> annotation) {
+        return isAnnotatedWith(classFile, descriptorOf(annotation));
+    }
+
+    /**
+     * @param annotationDescriptor the field descriptor of the annotation type, e.g. "Lcom/example/MyAnnotation;"
+     */
+    public static boolean isAnnotatedWith(byte[] classFile, byte[] annotationDescriptor) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(classFile);
+            if (in.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            in.getShort(); // minor version
+            in.getShort(); // major version
+
+            int poolSize = in.getShort() & 0xFFFF;
+            int[] utf8Offsets = new int[poolSize];
+            boolean descriptorInPool = false;
+
+            for (int i = 1; i < poolSize; i++) {
+                int tag = in.get();
+                switch (tag) {
+                    case 1 -> {
+                        int length = in.getShort() & 0xFFFF;
+                        utf8Offsets[i] = in.position() - 2;
+                        if (!descriptorInPool && length == annotationDescriptor.length) {
+                            descriptorInPool = Arrays.equals(classFile, in.position(), in.position() + length,
+                                    annotationDescriptor, 0, length);
+                        }
+                        skip(in, length);
+                    }
+                    case 7, 8, 16, 19, 20 -> skip(in, 2);
+                    case 15 -> skip(in, 3);
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> skip(in, 4);
+                    case 5, 6 -> {
+                        skip(in, 8);
+                        i++; // long and double take two constant pool slots
+                    }
+                    default -> throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+                }
+            }
+
+            if (!descriptorInPool) {
+                return false;
+            }
+
+            skip(in, 6); // access flags, this class, super class
+            skip(in, 2 * (in.getShort() & 0xFFFF)); // interfaces
+            skipMembers(in); // fields
+            skipMembers(in); // methods
+
+            int attributeCount = in.getShort() & 0xFFFF;
+            for (int i = 0; i < attributeCount; i++) {
+                int nameIndex = in.getShort() & 0xFFFF;
+                int length = in.getInt();
+                if (utf8Equals(classFile, utf8Offsets[nameIndex], RUNTIME_VISIBLE_ANNOTATIONS)) {
+                    return containsAnnotation(in, classFile, utf8Offsets, annotationDescriptor);
+                }
+                skip(in, length);
+            }
+            return false;
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) throw e;
+            throw new IllegalArgumentException("Malformed class file", e);
+        }
+    }
+
+    static byte[] descriptorOf(Class<?> annotation) {
+        return ("L" + annotation.getName().replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean containsAnnotation(ByteBuffer in, byte[] classFile, int[] utf8Offsets, byte[] descriptor) {
+        int annotationCount = in.getShort() & 0xFFFF;
+        for (int i = 0; i < annotationCount; i++) {
+            int typeIndex = in.getShort() & 0xFFFF;
+            if (utf8Equals(classFile, utf8Offsets[typeIndex], descriptor)) {
+                return true;
+            }
+            skipElementValuePairs(in);
+        }
+        return false;
+    }
+
+    private static void skipMembers(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            skip(in, 6); // access flags, name, descriptor
+            int attributeCount = in.getShort() & 0xFFFF;
+            for (int j = 0; j < attributeCount; j++) {
+                skip(in, 2);
+                skip(in, in.getInt());
+            }
+        }
+    }
+
+    private static void skipElementValuePairs(ByteBuffer in) {
+        int pairs = in.getShort() & 0xFFFF;
+        for (int i = 0; i < pairs; i++) {
+            skip(in, 2); // element name
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer in) {
+        int tag = in.get();
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> skip(in, 2);
+            case 'e' -> skip(in, 4);
+            case '@' -> {
+                skip(in, 2);
+                skipElementValuePairs(in);
+            }
+            case '[' -> {
+                int count = in.getShort() & 0xFFFF;
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    private static boolean utf8Equals(byte[] classFile, int offset, byte[] value) {
+        int length = ((classFile[offset] & 0xFF) << 8) | (classFile[offset + 1] & 0xFF);
+        return length == value.length
+                && Arrays.equals(classFile, offset + 2, offset + 2 + length, value, 0, length);
+    }
+
+    private static void skip(ByteBuffer in, int bytes) {
+        in.position(in.position() + bytes);
+    }
+}
@@ -0,0 +1,158 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Finds annotated classes in a package and all its subpackages, in exploded
+ * directories as well as in jar files, without loading any class that is not a match.
+ * How it works:
+ * 1. Every classpath root that contains the package is located via ClassLoader.getResources().
+ * 2. Directory roots are walked with NIO; jar roots are opened as a zip FileSystem and walked the same way.
+ * 3. The bytes of each .class file are read and checked by ClassFileAnnotationReader
+ *    in a parallel stream, so the work is spread across all cores.
+ * 4. Only matching classes are loaded, and without running their static initializers.
+ */
+@Slf4j
+public class ClassPathScanner {
+
+    private final ClassLoader classLoader;
+
+    public ClassPathScanner(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param basePackage the package to scan, including its subpackages
+     * @param annotation  the class-level annotation to look for (must be retained at runtime)
+     * @return the matching classes, sorted by name; empty if the package does not exist
+     * @throws IOException if a classpath root cannot be read
+     */
+    public List<Class<?>> findAnnotatedClasses(String basePackage, Class<? extends Annotation> annotation) throws IOException {
+        String packagePath = basePackage.replace('.', '/');
+        byte[] descriptor = ClassFileAnnotationReader.descriptorOf(annotation);
+
+        List<String> classNames = new ArrayList<>();
+        Enumeration<URL> roots = classLoader.getResources(packagePath);
+        while (roots.hasMoreElements()) {
+            classNames.addAll(scanRoot(roots.nextElement(), packagePath, descriptor));
+        }
+        Collections.sort(classNames);
+
+        List<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.warn("Could not load {}: {}", className, e.getMessage());
+            }
+        }
+        return classes;
+    }
+
+    private List<String> scanRoot(URL root, String packagePath, byte[] descriptor) throws IOException {
+        URI uri = toUri(root);
+
+        switch (uri.getScheme()) {
+            case "file" -> {
+                return scanDirectory(Path.of(uri), packagePath, descriptor);
+            }
+            case "jar" -> {
+                return scanJar(uri, packagePath, descriptor);
+            }
+            default -> {
+                log.warn("Skipping unsupported classpath location: {}", root);
+                return List.of();
+            }
+        }
+    }
+
+    private List<String> scanJar(URI uri, String packagePath, byte[] descriptor) throws IOException {
+        FileSystem jar;
+        boolean opened;
+        try {
+            jar = FileSystems.newFileSystem(uri, Map.of());
+            opened = true;
+        } catch (FileSystemAlreadyExistsException e) {
+            jar = FileSystems.getFileSystem(uri);
+            opened = false;
+        }
+
+        try {
+            return scanDirectory(jar.getPath(packagePath), packagePath, descriptor);
+        } finally {
+            if (opened) jar.close();
+        }
+    }
+
+    /**
+     * Walks the package directory recursively and checks every class file in parallel.
+     *
+     * @param packageDirectory the directory (or zip entry) that corresponds to packagePath
+     */
+    private static List<String> scanDirectory(Path packageDirectory, String packagePath, byte[] descriptor) throws IOException {
+        List<Path> classFiles;
+        try (Stream<Path> walk = Files.walk(packageDirectory)) {
+            classFiles = walk.filter(ClassPathScanner::isClassFile).toList();
+        }
+
+        try {
+            return classFiles.parallelStream()
+                    .filter(classFile -> isAnnotated(classFile, descriptor))
+                    .map(classFile -> toClassName(packageDirectory.relativize(classFile), packagePath))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isClassFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(".class")
+                && !fileName.equals("module-info.class")
+                && !fileName.equals("package-info.class")
+                && Files.isRegularFile(path);
+    }
+
+    private static boolean isAnnotated(Path classFile, byte[] descriptor) {
+        try {
+            return ClassFileAnnotationReader.isAnnotatedWith(Files.readAllBytes(classFile), descriptor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping unreadable class file {}: {}", classFile, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String toClassName(Path relativePath, String packagePath) {
+        String relative = relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
+        String resourceName = packagePath + "/" + relative.substring(0, relative.length() - ".class".length());
+        return resourceName.replace('/', '.');
+    }
+
+    private static URI toUri(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid classpath location: " + url, e);
+        }
+    }
+}
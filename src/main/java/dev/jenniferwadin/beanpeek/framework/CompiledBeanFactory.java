@@ -0,0 +1,371 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniConfigProperty;
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Creates instances of one bean class without any reflection per instance.
+ * All reflective work is done once, in compile():
+ * - the chosen constructor, the @MiniConfigProperty fields and the @MiniPostConstruct
+ *   methods are looked up and turned into MethodHandles,
+ * - config values are bound as ConfigValues, which convert them to the field types,
+ * - everything is combined into a single handle of type (Object[])Object that
+ *   constructs the bean, injects its config properties and runs its post-construct methods.
+ * create() is then one invokeExact call.
+ * The constructor, the injection and the post-construct methods are also kept as separate
+ * handles, so that while a StartupRecorder measures the bean each phase is timed on its own.
+ * Config fields get the current value at creation; reinject() sets them again after a reload.
+ * Fields of type Supplier&lt;T&gt; get the ConfigValue itself and follow reloads without that.
+ * Asynchronous @MiniPostConstruct methods are not part of the handles; they are started
+ * separately by startAsyncPostConstruct.
+ */
+@Slf4j
+public final class CompiledBeanFactory {
+
+    private static final MethodHandle LOG_CONFIG_PROPERTY;
+    private static final MethodHandle LOG_POST_CONSTRUCT;
+    private static final MethodHandle LOG_ASYNC_POST_CONSTRUCT;
+    private static final MethodHandle POST_CONSTRUCT_FAILED;
+    private static final MethodHandle CONFIG_VALUE_GET;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            LOG_CONFIG_PROPERTY = lookup.findStatic(CompiledBeanFactory.class, "logConfigProperty",
+                    MethodType.methodType(void.class, String.class, String.class));
+            LOG_POST_CONSTRUCT = lookup.findStatic(CompiledBeanFactory.class, "logPostConstruct",
+                    MethodType.methodType(void.class, String.class, String.class));
+            LOG_ASYNC_POST_CONSTRUCT = lookup.findStatic(CompiledBeanFactory.class, "logAsyncPostConstruct",
+                    MethodType.methodType(void.class, String.class, String.class));
+            POST_CONSTRUCT_FAILED = lookup.findStatic(CompiledBeanFactory.class, "postConstructFailed",
+                    MethodType.methodType(void.class, String.class, Throwable.class, Object.class));
+            CONFIG_VALUE_GET = lookup.findVirtual(ConfigValue.class, "get", MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<?> beanClass;
+    private final MethodHandle factory;
+    private final MethodHandle construct;
+    private final MethodHandle inject;
+    private final MethodHandle postConstruct;
+    private final List<Injection> injections;
+    private final List<AsyncPostConstruct> asyncPostConstructs;
+
+    /**
+     * @param key     the config key
+     * @param live    whether the field is a Supplier that follows reloads by itself
+     * @param handle  (Object)void, sets the field to the current value
+     */
+    private record Injection(String key, boolean live, MethodHandle handle) {
+    }
+
+    /**
+     * @param async  whether to run the method on the executor instead of the calling thread
+     * @param handle (Object)Object, runs the method and returns its CompletionStage (or null)
+     */
+    private record AsyncPostConstruct(boolean async, MethodHandle handle) {
+
+        /**
+         * @return the method's CompletionStage, or a completed future if it returned none;
+         *         failed if the method threw
+         */
+        CompletableFuture<Void> invoke(Object instance) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            try {
+                if ((Object) handle.invokeExact(instance) instanceof CompletionStage<?> stage) {
+                    stage.whenComplete((result, failure) -> {
+                        if (failure != null) done.completeExceptionally(failure);
+                        else done.complete(null);
+                    });
+                    return done;
+                }
+                done.complete(null);
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+            return done;
+        }
+    }
+
+    private CompiledBeanFactory(Class<?> beanClass, MethodHandle construct, List<Injection> injections,
+                                MethodHandle postConstruct, List<AsyncPostConstruct> asyncPostConstructs) {
+        this.beanClass = beanClass;
+        this.construct = construct;
+        this.injections = injections;
+        this.asyncPostConstructs = asyncPostConstructs;
+        this.inject = chain(injections.stream().map(Injection::handle).toList());
+        this.postConstruct = postConstruct;
+        this.factory = MethodHandles.filterReturnValue(construct, MethodHandles.filterReturnValue(inject, postConstruct));
+    }
+
+    /**
+     * Builds the factory for a bean class.
+     *
+     * @param beanClass   the class to instantiate
+     * @param constructor the constructor to use
+     * @param config      the configuration the @MiniConfigProperty values are read from
+     * @return a factory that creates fully initialized (but not proxied) instances
+     * @throws IllegalArgumentException if a config property has an unsupported type,
+     *                                  or its current value cannot be converted
+     */
+    public static CompiledBeanFactory compile(Class<?> beanClass, Constructor<?> constructor, MiniConfiguration config) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            constructor.setAccessible(true);
+            MethodHandle create = lookup.unreflectConstructor(constructor);
+            create = create.asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+
+            List<Injection> injections = new ArrayList<>();
+            for (Field field : beanClass.getDeclaredFields()) {
+                if (field.isAnnotationPresent(MiniConfigProperty.class)) {
+                    injections.add(configInjection(lookup, field, config));
+                }
+            }
+            List<MethodHandle> postConstructs = new ArrayList<>();
+            List<AsyncPostConstruct> asyncPostConstructs = new ArrayList<>();
+            for (Method method : beanClass.getDeclaredMethods()) {
+                MiniPostConstruct annotation = method.getAnnotation(MiniPostConstruct.class);
+                if (annotation == null) continue;
+                if (annotation.async() || CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+                    asyncPostConstructs.add(asyncPostConstruct(lookup, beanClass, method, annotation.async()));
+                } else {
+                    postConstructs.add(postConstruct(lookup, beanClass, method));
+                }
+            }
+            return new CompiledBeanFactory(beanClass, create, List.copyOf(injections), chain(postConstructs),
+                    List.copyOf(asyncPostConstructs));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot compile factory for " + beanClass.getName(), e);
+        }
+    }
+
+    /**
+     * @param dependencies the constructor arguments, in parameter order
+     * @return a new instance with config properties injected and post-construct methods run,
+     *         asynchronous ones included (this waits for them)
+     * @throws RuntimeException if an asynchronous post-construct method failed
+     */
+    public Object create(Object[] dependencies) {
+        Object instance = create(dependencies, StartupRecorder.EVENTS_ONLY);
+        if (hasAsyncPostConstruct()) {
+            try {
+                startAsyncPostConstruct(instance, ForkJoinPool.commonPool()).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw new RuntimeException("Failed to initialize " + beanClass.getSimpleName(), e.getCause());
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Like create(dependencies), but records the instantiate, inject and post-construct
+     * phases with the recorder while it is active for this bean.
+     */
+    Object create(Object[] dependencies, StartupRecorder recorder) {
+        try {
+            if (!recorder.isActive(beanClass)) {
+                return (Object) factory.invokeExact(dependencies);
+            }
+
+            BeanPhaseEvent event = recorder.begin(StartupPhase.INSTANTIATE, beanClass);
+            Object instance = (Object) construct.invokeExact(dependencies);
+            recorder.end(event);
+
+            event = recorder.begin(StartupPhase.INJECT, beanClass);
+            instance = (Object) inject.invokeExact(instance);
+            recorder.end(event);
+
+            event = recorder.begin(StartupPhase.POST_CONSTRUCT, beanClass);
+            instance = (Object) postConstruct.invokeExact(instance);
+            recorder.end(event);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create " + beanClass.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * @return whether the class has asynchronous @MiniPostConstruct methods
+     */
+    boolean hasAsyncPostConstruct() {
+        return !asyncPostConstructs.isEmpty();
+    }
+
+    /**
+     * Starts the asynchronous @MiniPostConstruct methods of an instance: the async ones
+     * on the executor, the others (which return a CompletionStage) on the calling thread.
+     *
+     * @return completes when all of them have; fails with the first failure
+     */
+    CompletableFuture<Void> startAsyncPostConstruct(Object instance, Executor executor) {
+        CompletableFuture<?>[] initializers = new CompletableFuture<?>[asyncPostConstructs.size()];
+        for (int i = 0; i < initializers.length; i++) {
+            AsyncPostConstruct postConstruct = asyncPostConstructs.get(i);
+            initializers[i] = postConstruct.async()
+                    ? CompletableFuture.supplyAsync(() -> postConstruct.invoke(instance), executor).thenCompose(done -> done)
+                    : postConstruct.invoke(instance);
+        }
+        return CompletableFuture.allOf(initializers);
+    }
+
+    /**
+     * Sets the config property fields of an existing instance that are bound to one of
+     * the changed keys to their current values. Supplier fields are left alone.
+     * The new values are visible to other threads only if the fields are volatile.
+     *
+     * @return whether any field was set
+     */
+    boolean reinject(Object instance, Set<String> changedKeys) {
+        boolean injected = false;
+        for (Injection injection : injections) {
+            if (injection.live() || !changedKeys.contains(injection.key())) continue;
+            try {
+                injection.handle().invokeExact(instance);
+                injected = true;
+            } catch (Throwable e) {
+                log.error("Failed to re-inject {} into {}: {}", injection.key(), beanClass.getSimpleName(), e.toString());
+            }
+        }
+        return injected;
+    }
+
+    /**
+     * @return whether reinject() can change instances of this class
+     */
+    boolean hasReinjectableProperties() {
+        return injections.stream().anyMatch(injection -> !injection.live());
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * @param initializers handles of type (Object)void
+     * @return a handle of type (Object)Object that runs the initializers on the instance and returns it
+     */
+    private static MethodHandle chain(List<MethodHandle> initializers) {
+        MethodHandle chain = MethodHandles.identity(Object.class);
+        for (int i = initializers.size() - 1; i >= 0; i--) {
+            chain = MethodHandles.foldArguments(chain, initializers.get(i));
+        }
+        return chain;
+    }
+
+    /**
+     * @return the injection of a field; its handle sets the field to the current value of its
+     *         ConfigValue, or for a Supplier field, to the ConfigValue itself
+     */
+    private static Injection configInjection(MethodHandles.Lookup lookup, Field field, MiniConfiguration config)
+            throws IllegalAccessException {
+        field.setAccessible(true);
+        String key = field.getAnnotation(MiniConfigProperty.class).value();
+        boolean live = field.getType() == Supplier.class;
+
+        MethodHandle value = live
+                ? MethodHandles.constant(Supplier.class, config.value(key, supplierType(field)))
+                : CONFIG_VALUE_GET.bindTo(config.value(key, field.getType())).asType(MethodType.methodType(field.getType()));
+        MethodHandle setter = lookup.unreflectSetter(field);
+        setter = setter.asType(setter.type().changeParameterType(0, Object.class));
+        setter = MethodHandles.collectArguments(setter, 1, value);
+
+        MethodHandle logSet = MethodHandles.insertArguments(LOG_CONFIG_PROPERTY, 0,
+                field.getDeclaringClass().getSimpleName(), field.getName());
+        return new Injection(key, live, MethodHandles.foldArguments(setter, logSet));
+    }
+
+    private static Class<?> supplierType(Field field) {
+        if (field.getGenericType() instanceof ParameterizedType type
+                && type.getActualTypeArguments()[0] instanceof Class<?> valueType) {
+            return valueType;
+        }
+        throw new IllegalArgumentException("Config property " + field.getDeclaringClass().getSimpleName() + "."
+                + field.getName() + " must be a Supplier of String, Integer, Boolean or Double");
+    }
+
+    /**
+     * @return a handle of type (Object)void that runs the method and logs (but does not rethrow) the
+     *         exceptions it throws; errors such as OutOfMemoryError are not caught
+     */
+    private static MethodHandle postConstruct(MethodHandles.Lookup lookup, Class<?> beanClass, Method method)
+            throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle invoke = lookup.unreflect(method).asType(MethodType.methodType(void.class, Object.class));
+
+        MethodHandle logCall = MethodHandles.insertArguments(LOG_POST_CONSTRUCT, 0, beanClass.getSimpleName(), method.getName());
+        invoke = MethodHandles.foldArguments(invoke, logCall);
+
+        MethodHandle onFailure = MethodHandles.insertArguments(POST_CONSTRUCT_FAILED, 0, method.getName());
+        return MethodHandles.catchException(invoke, Exception.class, onFailure);
+    }
+
+    /**
+     * @return a handle of type (Object)Object that runs the method and returns its result (null for void);
+     *         failures are not caught, they fail the bean's initialization
+     */
+    private static AsyncPostConstruct asyncPostConstruct(MethodHandles.Lookup lookup, Class<?> beanClass, Method method,
+                                                         boolean async) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle invoke = lookup.unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        MethodHandle logCall = MethodHandles.insertArguments(LOG_ASYNC_POST_CONSTRUCT, 0, beanClass.getSimpleName(), method.getName());
+        return new AsyncPostConstruct(async, MethodHandles.foldArguments(invoke, logCall));
+    }
+
+    static Object getConvertedValue(Class<?> fieldType, String value) {
+        Object convertedValue;
+        if (fieldType == String.class) {
+            convertedValue = value;
+        } else if (fieldType == int.class || fieldType == Integer.class) {
+            convertedValue = Integer.parseInt(value);
+        } else if (fieldType == boolean.class || fieldType == Boolean.class) {
+            convertedValue = Boolean.parseBoolean(value);
+        } else if (fieldType == double.class || fieldType == Double.class) {
+            // Double.parseDouble(null) throws a NullPointerException; fail like Integer.parseInt instead
+            if (value == null) throw new NumberFormatException("Cannot parse null string: null");
+            convertedValue = Double.parseDouble(value);
+        } else {
+            throw new IllegalArgumentException("Unsupported config type: " + fieldType.getName());
+        }
+        return convertedValue;
+    }
+
+    private static void logConfigProperty(String className, String fieldName) {
+        log.info("Setting MiniConfigProperty: {}.{}", className, fieldName);
+    }
+
+    private static void logPostConstruct(String className, String methodName) {
+        log.info("Running MiniPostConstruct: {}.{}", className, methodName);
+    }
+
+    private static void logAsyncPostConstruct(String className, String methodName) {
+        log.info("Running MiniPostConstruct asynchronously: {}.{}", className, methodName);
+    }
+
+    private static void postConstructFailed(String methodName, Throwable e, Object instance) {
+        log.error("Failed to execute @MiniPostConstruct method {}: {}", methodName, e.getMessage());
+    }
+}
@@ -0,0 +1,52 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * A typed configuration value that follows reloads of the MiniConfiguration.
+ * The value is converted once per reload, so get() is a single volatile read.
+ * Inject one into a bean by declaring a @MiniConfigProperty field of type Supplier&lt;T&gt;.
+ * If a reloaded value cannot be converted, the previous value is kept.
+ */
+@Slf4j
+public final class ConfigValue<T> implements Supplier<T> {
+
+    private final String key;
+    private final Class<?> type;
+    private volatile T value;
+
+    /**
+     * @throws IllegalArgumentException if the type is unsupported or the value cannot be converted
+     */
+    ConfigValue(String key, Class<T> type, String value) {
+        this.key = key;
+        this.type = MethodType.methodType(type).wrap().returnType();
+        this.value = convert(value);
+    }
+
+    @Override
+    public T get() {
+        return value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    void update(String newValue) {
+        try {
+            value = convert(newValue);
+        } catch (IllegalArgumentException e) {
+            log.error("Cannot convert reloaded value of {} to {}, keeping {}: {}",
+                    key, type.getSimpleName(), value, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T convert(String raw) {
+        return (T) CompiledBeanFactory.getConvertedValue(type, raw);
+    }
+}
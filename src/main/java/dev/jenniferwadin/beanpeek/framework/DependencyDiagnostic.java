@@ -0,0 +1,101 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects every problem found while resolving the dependency graph,
+ * so that it can be reported once instead of once per retry.
+ * Three kinds of problems are tracked:
+ * - Missing: no constructor of the bean can be satisfied by the known beans.
+ * - Cycle: beans that (directly or transitively) depend on each other.
+ * - Blocked: beans that are fine themselves but depend on a missing or cyclic bean.
+ */
+public class DependencyDiagnostic {
+
+    private final Map<Class<?>, List<String>> missing = new LinkedHashMap<>();
+    private final List<List<Class<?>>> cycles = new ArrayList<>();
+    private final Map<Class<?>, Class<?>> blocked = new LinkedHashMap<>();
+
+    void addMissing(Class<?> beanClass, List<String> unresolvedConstructors) {
+        missing.put(beanClass, unresolvedConstructors);
+    }
+
+    void addCycle(List<Class<?>> cycle) {
+        cycles.add(cycle);
+    }
+
+    void addBlocked(Class<?> beanClass, Class<?> blockedBy) {
+        blocked.put(beanClass, blockedBy);
+    }
+
+    public boolean hasProblems() {
+        return !missing.isEmpty() || !cycles.isEmpty() || !blocked.isEmpty();
+    }
+
+    /**
+     * @return each bean without a resolvable constructor, mapped to a description
+     *         of every constructor and the parameter types that could not be resolved
+     */
+    public Map<Class<?>, List<String>> getMissing() {
+        return missing;
+    }
+
+    /**
+     * @return every dependency cycle, each listed in dependency order
+     *         (the first bean depends on the second, and so on, and the last on the first)
+     */
+    public List<List<Class<?>>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return each bean that could not be created, mapped to the dependency that blocked it
+     */
+    public Map<Class<?>, Class<?>> getBlocked() {
+        return blocked;
+    }
+
+    @Override
+    public String toString() {
+        if (!hasProblems()) {
+            return "All beans resolved.";
+        }
+        StringBuilder sb = new StringBuilder("Could not resolve dependencies for ")
+                .append(missing.size() + countCycleMembers() + blocked.size())
+                .append(" bean(s):");
+
+        missing.forEach((beanClass, constructors) -> {
+            sb.append("\n  Missing dependency: ").append(beanClass.getName());
+            for (String constructor : constructors) {
+                sb.append("\n    - ").append(constructor);
+            }
+        });
+
+        for (List<Class<?>> cycle : cycles) {
+            sb.append("\n  Cycle: ");
+            for (Class<?> beanClass : cycle) {
+                sb.append(beanClass.getSimpleName()).append(" -> ");
+            }
+            sb.append(cycle.get(0).getSimpleName());
+        }
+
+        blocked.forEach((beanClass, blockedBy) -> sb.append("\n  Blocked: ")
+                .append(beanClass.getName())
+                .append(" (depends on unresolved ")
+                .append(blockedBy.getSimpleName())
+                .append(")"));
+
+        return sb.toString();
+    }
+
+    private int countCycleMembers() {
+        int count = 0;
+        for (List<Class<?>> cycle : cycles) {
+            count += cycle.size();
+        }
+        return count;
+    }
+}
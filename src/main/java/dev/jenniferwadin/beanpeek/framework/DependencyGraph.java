@@ -0,0 +1,245 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds an explicit dependency graph for a set of candidate bean classes
+ * and sorts it topologically, so every bean can be instantiated exactly once.
+ * How it works:
+ * 1. For each candidate, the first constructor whose parameter types can all be
+ *    resolved (to another candidate or an already registered bean) is selected.
+ *    A parameter type resolves to a bean of exactly that class, or to the single
+ *    known bean class that implements or extends it.
+ * 2. The selected constructors define the edges of the graph.
+ * 3. Kahn's algorithm produces the creation order.
+ * 4. Whatever cannot be ordered is analysed once and reported as a DependencyDiagnostic
+ *    (missing dependencies, cycles, and the beans blocked by them).
+ * Candidates are processed in class name order, so the result is deterministic.
+ */
+public class DependencyGraph {
+
+    private final Set<Class<?>> registeredBeans;
+    private final Set<Class<?>> knownBeans = new LinkedHashSet<>();
+    private final Map<Class<?>, BeanDefinition> definitions = new LinkedHashMap<>();
+    private final List<BeanDefinition> order = new ArrayList<>();
+    private final DependencyDiagnostic diagnostic = new DependencyDiagnostic();
+
+    /**
+     * @param candidates      the classes discovered by the scanner
+     * @param registeredBeans the bean classes already present in the container
+     */
+    public DependencyGraph(Collection<Class<?>> candidates, Set<Class<?>> registeredBeans) {
+        this.registeredBeans = registeredBeans;
+
+        Set<Class<?>> sorted = new TreeSet<>(Comparator.comparing(Class::getName));
+        sorted.addAll(candidates);
+        sorted.removeAll(registeredBeans);
+
+        knownBeans.addAll(registeredBeans);
+        knownBeans.addAll(sorted);
+
+        for (Class<?> candidate : sorted) {
+            selectConstructor(candidate);
+        }
+        sortTopologically(sorted);
+    }
+
+    /**
+     * @return the beans that can be created, ordered so that every bean comes after its dependencies
+     */
+    public List<BeanDefinition> getCreationOrder() {
+        return order;
+    }
+
+    /**
+     * @return the problems found while resolving the graph; empty if every candidate can be created
+     */
+    public DependencyDiagnostic getDiagnostic() {
+        return diagnostic;
+    }
+
+    private void selectConstructor(Class<?> candidate) {
+        List<String> unresolved = new ArrayList<>();
+
+        for (Constructor<?> constructor : candidate.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            List<Class<?>> dependencies = new ArrayList<>(parameterTypes.length);
+            List<String> problems = new ArrayList<>();
+
+            for (Class<?> type : parameterTypes) {
+                Class<?> resolved = resolveType(type, problems);
+                if (resolved != null) {
+                    dependencies.add(resolved);
+                }
+            }
+
+            if (problems.isEmpty()) {
+                definitions.put(candidate, new BeanDefinition(candidate, constructor, List.copyOf(dependencies)));
+                return;
+            }
+            unresolved.add(describe(candidate, parameterTypes) + " - " + String.join(", ", problems));
+        }
+        diagnostic.addMissing(candidate, unresolved);
+    }
+
+    private Class<?> resolveType(Class<?> type, List<String> problems) {
+        if (knownBeans.contains(type)) {
+            return type;
+        }
+
+        List<Class<?>> matches = new ArrayList<>();
+        for (Class<?> known : knownBeans) {
+            if (type.isAssignableFrom(known)) {
+                matches.add(known);
+            }
+        }
+
+        if (matches.size() == 1) {
+            return matches.get(0);
+        }
+        if (matches.isEmpty()) {
+            problems.add("no bean of type " + type.getSimpleName());
+        } else {
+            problems.add("ambiguous " + type.getSimpleName() + " " + simpleNames(matches));
+        }
+        return null;
+    }
+
+    /**
+     * Kahn's algorithm. Dependencies on already registered beans are satisfied up front,
+     * so only edges between candidates count towards the in-degree.
+     */
+    private void sortTopologically(Set<Class<?>> candidates) {
+        Map<Class<?>, Integer> inDegree = new HashMap<>();
+        Map<Class<?>, List<Class<?>>> dependents = new HashMap<>();
+
+        for (BeanDefinition definition : definitions.values()) {
+            int degree = 0;
+            for (Class<?> dependency : new LinkedHashSet<>(definition.dependencies())) {
+                if (registeredBeans.contains(dependency)) continue;
+                degree++;
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(definition.beanClass());
+            }
+            inDegree.put(definition.beanClass(), degree);
+        }
+
+        Deque<Class<?>> ready = new ArrayDeque<>();
+        for (Class<?> candidate : candidates) {
+            if (inDegree.getOrDefault(candidate, -1) == 0) {
+                ready.add(candidate);
+            }
+        }
+
+        while (!ready.isEmpty()) {
+            Class<?> next = ready.poll();
+            order.add(definitions.get(next));
+
+            for (Class<?> dependent : dependents.getOrDefault(next, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (order.size() < definitions.size()) {
+            reportUnordered();
+        }
+    }
+
+    /**
+     * Called only when some beans could not be ordered. Separates beans that sit on a
+     * cycle from beans that are merely blocked by a missing or cyclic dependency.
+     */
+    private void reportUnordered() {
+        Set<Class<?>> ordered = new HashSet<>();
+        for (BeanDefinition definition : order) {
+            ordered.add(definition.beanClass());
+        }
+
+        Set<Class<?>> remaining = new LinkedHashSet<>(definitions.keySet());
+        remaining.removeAll(ordered);
+
+        Set<Class<?>> onCycle = new HashSet<>();
+        for (Class<?> start : remaining) {
+            if (onCycle.contains(start)) continue;
+            List<Class<?>> cycle = findCycle(start, remaining);
+            if (cycle != null && !containsAny(onCycle, cycle)) {
+                onCycle.addAll(cycle);
+                diagnostic.addCycle(cycle);
+            }
+        }
+
+        for (Class<?> beanClass : remaining) {
+            if (onCycle.contains(beanClass)) continue;
+            for (Class<?> dependency : definitions.get(beanClass).dependencies()) {
+                if (!ordered.contains(dependency) && !registeredBeans.contains(dependency)) {
+                    diagnostic.addBlocked(beanClass, dependency);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Breadth-first search from start back to start, following only unordered beans.
+     *
+     * @return the beans on the shortest cycle through start, or null if start is not on a cycle
+     */
+    private List<Class<?>> findCycle(Class<?> start, Set<Class<?>> remaining) {
+        Map<Class<?>, Class<?>> parent = new HashMap<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.poll();
+            for (Class<?> dependency : definitions.get(current).dependencies()) {
+                if (dependency == start) {
+                    List<Class<?>> cycle = new ArrayList<>();
+                    for (Class<?> node = current; node != null; node = parent.get(node)) {
+                        cycle.add(0, node);
+                    }
+                    return cycle;
+                }
+                if (remaining.contains(dependency) && !parent.containsKey(dependency)) {
+                    parent.put(dependency, current);
+                    queue.add(dependency);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsAny(Set<Class<?>> set, List<Class<?>> values) {
+        for (Class<?> value : values) {
+            if (set.contains(value)) return true;
+        }
+        return false;
+    }
+
+    private static String describe(Class<?> clazz, Class<?>[] parameterTypes) {
+        return clazz.getSimpleName() + simpleNames(List.of(parameterTypes))
+                .replace('[', '(')
+                .replace(']', ')');
+    }
+
+    private static String simpleNames(List<Class<?>> classes) {
+        List<String> names = new ArrayList<>(classes.size());
+        for (Class<?> clazz : classes) {
+            names.add(clazz.getSimpleName());
+        }
+        return names.toString();
+    }
+}
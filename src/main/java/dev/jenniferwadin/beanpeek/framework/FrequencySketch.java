@@ -0,0 +1,81 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * Estimates how often each key was seen recently, in a fixed amount of memory.
+ * A count-min sketch with four rows of 4-bit counters, 16 counters per long:
+ * - increment adds one to the key's counter in each row (saturating at 15).
+ * - frequency is the smallest of the four counters; hash collisions only ever
+ *   make an estimate too high, never too low.
+ * - After 10 increments per cached entry, all counters are halved, so keys that
+ *   were popular long ago lose against keys that are popular now.
+ * Not thread-safe: BoundedCache uses it under its policy lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize the number of entries of the cache the sketch is for
+     */
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+        this.table = new long[length];
+        this.counterMask = length * 16 - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = counterIndex(hash, row);
+            frequency = Math.min(frequency, (int) (table[counter >>> 4] >>> shift(counter)) & 0xF);
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = counterIndex(hash, row);
+            int shift = shift(counter);
+            if (((table[counter >>> 4] >>> shift) & 0xF) < 15) {
+                table[counter >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counterIndex(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private static int shift(int counter) {
+        return (counter & 15) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
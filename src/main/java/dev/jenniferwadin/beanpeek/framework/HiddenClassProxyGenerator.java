@@ -0,0 +1,405 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import sun.misc.Unsafe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates class-based proxies: a hidden subclass of the bean class whose methods
+ * forward straight to a MethodHandle chain, without reflection or boxing.
+ * For a method like {@code int slowAddition(int a, int b)} the generated override is:
+ * <pre>
+ *   ldc          (constant MethodHandle #i, loaded from the hidden class data)
+ *   iload_1
+ *   iload_2
+ *   invokevirtual MethodHandle.invokeExact:(II)I
+ *   ireturn
+ * </pre>
+ * Because the handle is a true constant of the class, the JIT can inline the whole
+ * chain, down to the call on the target.
+ * The proxy is a subclass, so it is an instance of the bean class and
+ * getBean(ConcreteClass) keeps working.
+ * Like Spring's CGLIB proxies (which are instantiated with Objenesis), the proxy is
+ * allocated without running any constructor or field initializer of the bean class,
+ * with sun.misc.Unsafe.allocateInstance: a lazy bean's constructor runs only for the
+ * real bean, and constructors that reject null arguments do not get in the way.
+ * Only if the JDK does not offer allocateInstance does the proxy run the bean
+ * constructor with the fewest parameters, passing null/zero for each.
+ * Either way its own state is never used: every overridable method, including equals,
+ * hashCode and toString, forwards to the target.
+ * Final classes cannot be proxied, and final methods cannot be intercepted.
+ */
+public class HiddenClassProxyGenerator {
+
+    private static final int CLASS_FILE_VERSION = 61;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int REF_INVOKE_STATIC = 6;
+
+    private static final String METHOD_HANDLE = "java/lang/invoke/MethodHandle";
+    private static final String CLASS_DATA_AT_DESCRIPTOR =
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;";
+
+    // Allocates proxies without calling a constructor; null if the JDK does not offer it
+    private static final Unsafe UNSAFE = findUnsafe();
+
+    /**
+     * sun.misc.Unsafe (module jdk.unsupported) is internal API, and javac warns about every use;
+     * the warning cannot be suppressed and is expected. It is used anyway because allocateInstance
+     * is the only way to skip the constructor that works for hidden classes: the serialization
+     * constructors of ReflectionFactory fail to link against them.
+     */
+    private static Unsafe findUnsafe() {
+        try {
+            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return (Unsafe) theUnsafe.get(null);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param superclass the bean class to extend
+     * @return the methods a subclass in the same package can override, most specific first
+     */
+    public static List<Method> overridableMethods(Class<?> superclass) {
+        Map<String, Method> methods = new HashMap<>();
+        List<Method> result = new ArrayList<>();
+
+        for (Class<?> type = superclass; type != null; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!isOverridable(method, superclass)) continue;
+                if (type == Object.class && !List.of("equals", "hashCode", "toString").contains(method.getName())) continue;
+
+                String key = method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+                if (methods.putIfAbsent(key, method) == null) {
+                    result.add(method);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isOverridable(Method method, Class<?> subclassPackageOf) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers)
+                || method.isSynthetic() || method.isBridge()) {
+            return false;
+        }
+        if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) {
+            return true;
+        }
+        // package-private methods can only be overridden from the same package
+        return method.getDeclaringClass().getPackageName().equals(subclassPackageOf.getPackageName());
+    }
+
+    /**
+     * Defines the proxy class and creates its single instance.
+     *
+     * @param superclass the bean class to extend
+     * @param methods    the methods to override (see overridableMethods)
+     * @param handles    one handle per method, typed exactly like the method, with the target bound
+     * @return the proxy instance
+     * @throws IllegalStateException if the class cannot be subclassed or defined
+     */
+    public static Object createProxy(Class<?> superclass, List<Method> methods, List<MethodHandle> handles) {
+        if (Modifier.isFinal(superclass.getModifiers())) {
+            throw new IllegalStateException("Cannot create a class-based proxy for final class " + superclass.getName());
+        }
+        Constructor<?> superConstructor = selectSuperConstructor(superclass);
+
+        List<MethodHandle> classData = new ArrayList<>(handles.size());
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            classData.add(handles.get(i).asType(MethodType.methodType(method.getReturnType(), method.getParameterTypes())));
+        }
+
+        byte[] bytes = generate(superclass, superConstructor, methods);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(superclass, MethodHandles.lookup())
+                    .defineHiddenClassWithClassData(bytes, List.copyOf(classData), true, MethodHandles.Lookup.ClassOption.NESTMATE);
+            if (UNSAFE != null) {
+                return UNSAFE.allocateInstance(lookup.lookupClass());
+            }
+            return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not define proxy class for " + superclass.getName(), e);
+        }
+    }
+
+    /**
+     * Picks the constructor with the fewest parameters; the proxy's own constructor, used only
+     * without allocateInstance, passes null/zero for each.
+     */
+    private static Constructor<?> selectSuperConstructor(Class<?> superclass) {
+        Constructor<?> selected = null;
+        for (Constructor<?> constructor : superclass.getDeclaredConstructors()) {
+            if (selected == null || constructor.getParameterCount() < selected.getParameterCount()) {
+                selected = constructor;
+            }
+        }
+        return selected;
+    }
+
+    private static byte[] generate(Class<?> superclass, Constructor<?> superConstructor, List<Method> methods) {
+        ConstantPool pool = new ConstantPool();
+        String superName = internalName(superclass);
+        int thisClass = pool.classRef(superName + "$$BeanpeekProxy");
+        int superClass = pool.classRef(superName);
+        int code = pool.utf8("Code");
+
+        ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(methodBytes);
+        List<Integer> bootstrapArguments = new ArrayList<>();
+        try {
+            writeConstructor(out, pool, code, superName, superConstructor);
+
+            int classDataAt = pool.methodHandle(REF_INVOKE_STATIC,
+                    pool.methodRef("java/lang/invoke/MethodHandles", "classDataAt", CLASS_DATA_AT_DESCRIPTOR));
+            for (int i = 0; i < methods.size(); i++) {
+                bootstrapArguments.add(pool.integer(i));
+                int handle = pool.dynamic(i, "_", "L" + METHOD_HANDLE + ";");
+                writeForwardingMethod(out, pool, code, methods.get(i), handle);
+            }
+
+            ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+            DataOutputStream cls = new DataOutputStream(classBytes);
+            int bootstrapMethods = pool.utf8("BootstrapMethods");
+
+            cls.writeInt(0xCAFEBABE);
+            cls.writeShort(0);
+            cls.writeShort(CLASS_FILE_VERSION);
+            pool.write(cls);
+            cls.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            cls.writeShort(thisClass);
+            cls.writeShort(superClass);
+            cls.writeShort(0); // interfaces
+            cls.writeShort(0); // fields
+            cls.writeShort(methods.size() + 1);
+            methodBytes.writeTo(cls);
+
+            cls.writeShort(1); // class attributes
+            cls.writeShort(bootstrapMethods);
+            cls.writeInt(2 + bootstrapArguments.size() * 6);
+            cls.writeShort(bootstrapArguments.size());
+            for (int argument : bootstrapArguments) {
+                cls.writeShort(classDataAt);
+                cls.writeShort(1);
+                cls.writeShort(argument);
+            }
+            return classBytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeConstructor(DataOutputStream out, ConstantPool pool, int code,
+                                         String superName, Constructor<?> superConstructor) throws IOException {
+        Class<?>[] parameterTypes = superConstructor.getParameterTypes();
+        String descriptor = MethodType.methodType(void.class, parameterTypes).toMethodDescriptorString();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(0x2a); // aload_0
+        int stack = 1;
+        for (Class<?> type : parameterTypes) {
+            body.write(defaultValueOpcode(type));
+            stack += slots(type);
+        }
+        body.write(0xb7); // invokespecial
+        writeShort(body, pool.methodRef(superName, "<init>", descriptor));
+        body.write(0xb1); // return
+
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(pool.utf8("<init>"));
+        out.writeShort(pool.utf8("()V"));
+        writeCode(out, code, stack, 1, body.toByteArray());
+    }
+
+    private static void writeForwardingMethod(DataOutputStream out, ConstantPool pool, int code,
+                                              Method method, int handle) throws IOException {
+        MethodType type = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+        String descriptor = type.toMethodDescriptorString();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(0x13); // ldc_w
+        writeShort(body, handle);
+        int slot = 1;
+        for (Class<?> parameter : method.getParameterTypes()) {
+            body.write(loadOpcode(parameter));
+            body.write(slot);
+            slot += slots(parameter);
+        }
+        body.write(0xb6); // invokevirtual
+        writeShort(body, pool.methodRef(METHOD_HANDLE, "invokeExact", descriptor));
+        body.write(returnOpcode(method.getReturnType()));
+
+        int modifiers = method.getModifiers();
+        out.writeShort(Modifier.isPublic(modifiers) ? ACC_PUBLIC : Modifier.isProtected(modifiers) ? ACC_PROTECTED : 0);
+        out.writeShort(pool.utf8(method.getName()));
+        out.writeShort(pool.utf8(descriptor));
+        writeCode(out, code, Math.max(slot, 2), slot, body.toByteArray());
+    }
+
+    private static void writeCode(DataOutputStream out, int code, int maxStack, int maxLocals, byte[] body) throws IOException {
+        out.writeShort(1); // method attributes
+        out.writeShort(code);
+        out.writeInt(12 + body.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (type == long.class) return 0x16;   // lload
+        if (type == float.class) return 0x17;  // fload
+        if (type == double.class) return 0x18; // dload
+        if (type.isPrimitive()) return 0x15;   // iload
+        return 0x19;                           // aload
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == void.class) return 0xb1;   // return
+        if (type == long.class) return 0xad;   // lreturn
+        if (type == float.class) return 0xae;  // freturn
+        if (type == double.class) return 0xaf; // dreturn
+        if (type.isPrimitive()) return 0xac;   // ireturn
+        return 0xb0;                           // areturn
+    }
+
+    private static int defaultValueOpcode(Class<?> type) {
+        if (type == long.class) return 0x09;   // lconst_0
+        if (type == float.class) return 0x0b;  // fconst_0
+        if (type == double.class) return 0x0e; // dconst_0
+        if (type.isPrimitive()) return 0x03;   // iconst_0
+        return 0x01;                           // aconst_null
+    }
+
+    private static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static String internalName(Class<?> clazz) {
+        return clazz.getName().replace('.', '/');
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * The constant pool of the generated class. Entries are deduplicated.
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int size;
+
+        int utf8(String value) {
+            return entry("utf8 " + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int integer(int value) {
+            return entry("int " + value, () -> {
+                out.writeByte(3);
+                out.writeInt(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("class " + internalName, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            return entry("method " + owner + "." + name + descriptor, () -> {
+                out.writeByte(10);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int methodHandle(int kind, int reference) {
+            return entry("handle " + kind + " " + reference, () -> {
+                out.writeByte(15);
+                out.writeByte(kind);
+                out.writeShort(reference);
+            });
+        }
+
+        int dynamic(int bootstrapMethod, String name, String descriptor) {
+            int nameAndType = nameAndType(name, descriptor);
+            return entry("dynamic " + bootstrapMethod + " " + name + descriptor, () -> {
+                out.writeByte(17);
+                out.writeShort(bootstrapMethod);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            return entry("nat " + name + descriptor, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+        }
+
+        private int entry(String key, EntryWriter writer) {
+            Integer existing = indexes.get(key);
+            if (existing != null) return existing;
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            indexes.put(key, ++size);
+            return size;
+        }
+
+        void write(DataOutputStream target) throws IOException {
+            target.writeShort(size + 1);
+            bytes.writeTo(target);
+        }
+
+        @FunctionalInterface
+        private interface EntryWriter {
+            void write() throws IOException;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Dispatches proxy calls through the per-method handle chains prepared by ProxyFactory.
+ * Each chain already contains the interceptors that apply to its method (or none at all),
+ * so a call is a single map lookup followed by invokeExact.
+ * Used by proxies created in ProxyFactory.
+ */
+public class InterceptingInvocationHandler implements InvocationHandler {
+
+    private final Object target;
+    private final Map<Method, MethodHandle> dispatchTable;
+
+    /**
+     * @param target        the bean behind the proxy
+     * @param dispatchTable for every proxied method, a handle of type (Object[])Object
+     *                      with the target already bound
+     */
+    public InterceptingInvocationHandler(Object target, Map<Method, MethodHandle> dispatchTable) {
+        this.target = target;
+        this.dispatchTable = dispatchTable;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodHandle handle = dispatchTable.get(method);
+        if (handle == null) {
+            return method.invoke(target, args);
+        }
+        return (Object) handle.invokeExact(args);
+    }
+}
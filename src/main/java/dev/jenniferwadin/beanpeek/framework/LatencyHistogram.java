@@ -0,0 +1,164 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram with log-linear buckets, along the lines of HdrHistogram.
+ * - Values below 128 ns get a bucket each. Above that, every power of two is split
+ *   into 128 buckets, so a bucket is at most 1/128 (under 1%) of its value wide.
+ * - Values up to 2^36 ns (about 68 seconds) are tracked; longer ones count as 2^36 ns.
+ * - record() is wait-free and allocates nothing: one atomic increment of a bucket,
+ *   an add to a LongAdder and, only for a new maximum, a compare-and-set.
+ * Snapshots are computed from the buckets while writers keep recording, so a snapshot
+ * taken under load may be off by the few calls that were being recorded at that moment.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 36;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKETS = SUB_BUCKETS * (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // Bucket counts and total at the last interval snapshot; only touched by readers
+    private final long[] intervalStart = new long[BUCKETS];
+    private long intervalStartTotal;
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(value));
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return statistics over everything recorded since creation (or the last reset)
+     */
+    public LatencySnapshot snapshot() {
+        long[] current = copyCounts();
+        return snapshotOf(current, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Interval mode: returns statistics over what was recorded since the previous
+     * call to this method (or since creation). Unlike reset, nothing is cleared, so
+     * the cumulative snapshot is unaffected and writers are never disturbed.
+     * The interval max is the upper bound of the highest non-empty bucket.
+     */
+    public synchronized LatencySnapshot intervalSnapshot() {
+        long[] current = copyCounts();
+        long total = totalNanos.sum();
+
+        long[] delta = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            delta[i] = current[i] - intervalStart[i];
+        }
+        long intervalTotal = total - intervalStartTotal;
+        System.arraycopy(current, 0, intervalStart, 0, BUCKETS);
+        intervalStartTotal = total;
+
+        return snapshotOf(delta, intervalTotal, -1);
+    }
+
+    /**
+     * Clears all recorded values. Calls being recorded concurrently may survive the reset.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.reset();
+        maxNanos.set(0);
+        Arrays.fill(intervalStart, 0);
+        intervalStartTotal = 0;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS * (shift + 1) + subBucket;
+    }
+
+    /**
+     * @return the highest value that falls into the bucket
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private long[] copyCounts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * @param max the exact max, or -1 to derive it from the buckets
+     */
+    private static LatencySnapshot snapshotOf(long[] buckets, long total, long max) {
+        long count = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (buckets[i] > 0) {
+                count += buckets[i];
+                highest = i;
+            }
+        }
+        if (count == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+
+        long maxValue = max >= 0 ? max : highestValueOf(highest);
+        return new LatencySnapshot(count, (double) total / count,
+                percentile(buckets, count, 0.50, maxValue),
+                percentile(buckets, count, 0.99, maxValue),
+                percentile(buckets, count, 0.999, maxValue),
+                maxValue);
+    }
+
+    /**
+     * @return the highest value of the bucket holding the given quantile, but never more than the max
+     */
+    private static long percentile(long[] buckets, long count, double quantile, long max) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * Latency statistics of one timed method, taken from its LatencyHistogram.
+ * Percentiles and max are accurate to within 1% (the histogram's bucket width).
+ * All times are in nanoseconds.
+ *
+ * @param count      number of recorded calls
+ * @param meanNanos  mean duration
+ * @param p50Nanos   median duration
+ * @param p99Nanos   99th percentile
+ * @param p999Nanos  99.9th percentile
+ * @param maxNanos   longest duration
+ */
+public record LatencySnapshot(long count, double meanNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+    static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0);
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                count, meanNanos / 1e6, p50Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6, maxNanos / 1e6);
+    }
+}
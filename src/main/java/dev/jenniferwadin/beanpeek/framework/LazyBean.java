@@ -0,0 +1,75 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Supplier;
+
+/**
+ * Holds the target behind a lazy proxy and creates it on first use.
+ * Creation happens once, under the holder's lock (double-checked); after that,
+ * get() is a single volatile read. Records how long creation took and how much
+ * it allocated, for the LazyBeanReport.
+ */
+@Slf4j
+final class LazyBean {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Class<?> beanClass;
+    private final Supplier<Object> factory;
+    private volatile Object instance;
+
+    private long proxyNanos;
+    private long proxyBytes;
+    private volatile long initNanos;
+    private volatile long initBytes;
+
+    LazyBean(Class<?> beanClass, Supplier<Object> factory) {
+        this.beanClass = beanClass;
+        this.factory = factory;
+    }
+
+    /**
+     * @return the real bean, created and initialized by the first caller
+     */
+    Object get() {
+        Object current = instance;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (instance == null) {
+                long startBytes = allocatedBytes();
+                long start = System.nanoTime();
+                Object created = factory.get();
+                initNanos = System.nanoTime() - start;
+                initBytes = allocatedBytes() - startBytes;
+                instance = created;
+                log.info("Initialized lazy bean {} on first use in {} ms, {} bytes allocated",
+                        beanClass.getSimpleName(), String.format("%.3f", initNanos / 1_000_000.0), initBytes);
+            }
+            return instance;
+        }
+    }
+
+    void recordProxyCost(long nanos, long bytes) {
+        this.proxyNanos = nanos;
+        this.proxyBytes = bytes;
+    }
+
+    LazyBeanReport report() {
+        return new LazyBeanReport(beanClass, instance != null, proxyNanos, proxyBytes, initNanos, initBytes);
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or 0 if the JVM cannot tell
+     */
+    static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
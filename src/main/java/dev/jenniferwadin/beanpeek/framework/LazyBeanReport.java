@@ -0,0 +1,34 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * What making one bean lazy has cost and saved at startup.
+ * Startup paid only for the proxy; the real bean was created on first use, if at all.
+ * Allocation is measured per thread, and is 0 where the JVM does not support it.
+ *
+ * @param beanClass   the lazy bean
+ * @param initialized whether the bean has been used (and therefore created) yet
+ * @param proxyNanos  time spent at startup creating the proxy
+ * @param proxyBytes  heap allocated at startup creating the proxy
+ * @param initNanos   time spent creating and initializing the bean on first use; 0 if not initialized
+ * @param initBytes   heap allocated creating and initializing the bean on first use; 0 if not initialized
+ */
+public record LazyBeanReport(Class<?> beanClass, boolean initialized,
+                             long proxyNanos, long proxyBytes,
+                             long initNanos, long initBytes) {
+
+    /**
+     * @return the startup time saved: the deferred creation minus the proxy.
+     *         For beans that were never used, their creation cost is unknown and only
+     *         the (negative) proxy cost is counted.
+     */
+    public long savedNanos() {
+        return initNanos - proxyNanos;
+    }
+
+    /**
+     * @return the startup heap saved, counted like savedNanos
+     */
+    public long savedBytes() {
+        return initBytes - proxyBytes;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MethodHandle combinators shared by the interceptors.
+ * They build typed handles once, so an intercepted call neither boxes its
+ * arguments nor goes through reflection.
+ */
+public final class MethodHandleChains {
+
+    private MethodHandleChains() {
+    }
+
+    /**
+     * Builds a handle that behaves like "token = before(); try { next(args) } finally { after(token) }".
+     *
+     * @param next   the handle to wrap, of any type
+     * @param before a handle of type ()T, run before next; if it throws, next and after are skipped
+     * @param after  a handle of type (T)void, run after next returns or throws; it may also
+     *               be of type (T, args...)void to receive the call's arguments
+     * @return a handle with the same type as next
+     */
+    public static MethodHandle around(MethodHandle next, MethodHandle before, MethodHandle after) {
+        MethodType type = next.type();
+        Class<?> tokenType = before.type().returnType();
+        Class<?> returnType = type.returnType();
+
+        List<Class<?>> tokenAndParameters = new ArrayList<>();
+        tokenAndParameters.add(tokenType);
+        tokenAndParameters.addAll(type.parameterList());
+
+        // (token, args...) -> result
+        MethodHandle body = MethodHandles.dropArguments(next, 0, tokenType);
+
+        // (throwable, [result,] token, args...) -> [result]
+        MethodHandle cleanup;
+        if (returnType == void.class) {
+            cleanup = after.type().parameterCount() == 1
+                    ? MethodHandles.dropArguments(after, 1, type.parameterList())
+                    : after;
+        } else {
+            MethodHandle passResult = MethodHandles.dropArguments(MethodHandles.identity(returnType), 1, tokenAndParameters);
+            cleanup = MethodHandles.foldArguments(passResult, 1, after);
+        }
+        cleanup = MethodHandles.dropArguments(cleanup, 0, Throwable.class);
+
+        // before() supplies the token as the leading argument
+        return MethodHandles.foldArguments(MethodHandles.tryFinally(body, cleanup), before);
+    }
+
+    /**
+     * Adapts a typed handle to the generic (Object[])Object shape used by InvocationHandlers.
+     * Primitive arguments and results are boxed and unboxed at this boundary only.
+     */
+    public static MethodHandle spread(MethodHandle handle) {
+        return handle.asSpreader(Object[].class, handle.type().parameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+}
@@ -0,0 +1,60 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * An aspect that ProxyFactory can attach to bean methods.
+ * Interceptors work on MethodHandles instead of reflective calls:
+ * when a proxy is created, every interceptor that applies to a method wraps the
+ * handle of the next link in the chain, and the finished chain is stored in the
+ * proxy's dispatch table. Nothing is looked up or checked per call.
+ * Interceptors are registered with BeanContainer.addInterceptor(), or discovered
+ * with ServiceLoader (META-INF/services/dev.jenniferwadin.beanpeek.framework.MethodInterceptor).
+ * Similar to Spring's MethodInterceptor, but resolved once instead of per invocation.
+ */
+public interface MethodInterceptor {
+
+    /**
+     * Called once per bean method when the proxy is created.
+     *
+     * @param method the method as declared on the bean class (annotations can be read from it)
+     * @return true if this interceptor should wrap the method
+     */
+    boolean appliesTo(Method method);
+
+    /**
+     * Wraps the next link of the chain.
+     * The target is already bound, so next has exactly the method's parameter and
+     * return types, e.g. (int, int)int for {@code int slowAddition(int a, int b)}.
+     * The returned handle must have the same type.
+     *
+     * @param method the method being intercepted
+     * @param next   the rest of the chain, ending with the call on the target
+     * @return a handle of the same type that adds this interceptor's behaviour
+     */
+    MethodHandle intercept(Method method, MethodHandle next);
+
+    /**
+     * Like intercept(method, next), for interceptors that also call other methods of the
+     * bean (e.g. @MiniBatched calls the batch method). By default it ignores targetMethods.
+     *
+     * @param targetMethods gives the direct handle of another method of the bean: the
+     *                      target is bound, no interceptors apply, and it is typed like the method
+     */
+    default MethodHandle intercept(Method method, MethodHandle next, Function<Method, MethodHandle> targetMethods) {
+        return intercept(method, next);
+    }
+
+    /**
+     * Like intercept(method, next, targetMethods), for interceptors that keep state per
+     * bean (e.g. the @MiniAsync cap). ProxyFactory calls this one; by default it ignores beanClass.
+     *
+     * @param beanClass the class of the bean being proxied, which may inherit the method
+     */
+    default MethodHandle intercept(Class<?> beanClass, Method method, MethodHandle next,
+                                   Function<Method, MethodHandle> targetMethods) {
+        return intercept(method, next, targetMethods);
+    }
+}
@@ -0,0 +1,74 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Names of intercepted methods, for interceptors that keep state per method.
+ * The state itself is kept per Method, so overloads and classes with the same simple
+ * name never share it. Reports and lookups use the short name "ClassName.methodName";
+ * where several methods have the same short name, each of them goes by its full name
+ * "package.ClassName.methodName(ParameterType, ...)" instead.
+ */
+final class MethodNames {
+
+    private MethodNames() {
+    }
+
+    /**
+     * @return "ClassName.methodName"
+     */
+    static String shortName(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    /**
+     * @return "package.ClassName.methodName(ParameterType, ...)"
+     */
+    static String fullName(Method method) {
+        StringBuilder sb = new StringBuilder(method.getDeclaringClass().getName())
+                .append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(parameterTypes[i].getSimpleName());
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * @param values the state of each method
+     * @param view   what to report of a method's state
+     * @return the view of every method by its name (short, or full where the short one is shared), sorted by name
+     */
+    static <S, R> Map<String, R> byName(Map<Method, S> values, Function<S, R> view) {
+        Map<String, Integer> shortNames = new HashMap<>();
+        values.keySet().forEach(method -> shortNames.merge(shortName(method), 1, Integer::sum));
+        Map<String, R> named = new TreeMap<>();
+        values.forEach((method, value) -> {
+            String shortName = shortName(method);
+            named.put(shortNames.get(shortName) == 1 ? shortName : fullName(method), view.apply(value));
+        });
+        return named;
+    }
+
+    /**
+     * @param name a short name (which may match several methods) or a full name
+     * @return the methods that go by the name; empty if none does
+     */
+    static List<Method> named(Collection<Method> methods, String name) {
+        List<Method> named = new ArrayList<>();
+        for (Method method : methods) {
+            if (name.equals(shortName(method)) || name.equals(fullName(method))) {
+                named.add(method);
+            }
+        }
+        return named;
+    }
+}
@@ -4,33 +4,90 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * The configuration values of a container: application.properties from the class path,
+ * optionally overlaid with a properties file that is reloaded when it changes.
+ * How reloading works:
+ * - The file is set with the property "beanpeek.config.file" (a system property, or an
+ *   entry in application.properties). Its values override the class path values.
+ * - Once start is called, a WatchService watches the file's directory on a daemon
+ *   thread. Every change (or a call to reload) parses the whole file into a new immutable map, which replaces the
+ *   current one in a single volatile write. Readers never lock, and always see either
+ *   the old or the new values, never a mix.
+ * - The ConfigValues of changed keys are then converted again, and the listeners are
+ *   told which keys changed (the BeanContainer re-injects @MiniConfigProperty fields).
+ * A file that cannot be read keeps the previous values.
+ */
 @Slf4j
-public class MiniConfiguration {
+public class MiniConfiguration implements AutoCloseable {
 
-    private final Map<String, String> values = new HashMap<>();
+    static final String CONFIG_FILE = "beanpeek.config.file";
+    // Editors often write a file in several steps; changes within this time are applied together
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Map<String, String> classPathValues = new HashMap<>();
+    private final Path file;
+    private volatile Map<String, String> values;
+
+    private final Map<ValueKey, ConfigValue<?>> configValues = new ConcurrentHashMap<>();
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+    private volatile WatchService watchService;
+
+    private record ValueKey(String key, Class<?> type) {
+    }
 
     public MiniConfiguration() {
+        this(null);
+    }
+
+    /**
+     * @param file the properties file to overlay and watch (see start); if null, the one
+     *             named by "beanpeek.config.file" is used, if any
+     */
+    public MiniConfiguration(Path file) {
         try (InputStream input = getClass().getClassLoader().getResourceAsStream("application.properties")) {
             if (input == null) {
                 log.warn("No application.properties found.");
-                return;
-            }
+            } else {
+                Properties properties = new Properties();
+                properties.load(input);
 
-            Properties properties = new Properties();
-            properties.load(input);
+                for (String name : properties.stringPropertyNames()) {
+                    classPathValues.put(name, properties.getProperty(name));
+                }
 
-            for (String name : properties.stringPropertyNames()) {
-                values.put(name, properties.getProperty(name));
+                log.info("Loaded {} config values", classPathValues.size());
             }
-
-            log.info("Loaded {} config values", values.size());
         } catch (IOException e) {
             log.error("Failed to load configuration: {}", e.getMessage());
         }
+
+        if (file == null) {
+            String configured = System.getProperty(CONFIG_FILE, classPathValues.get(CONFIG_FILE));
+            file = configured == null || configured.isBlank() ? null : Path.of(configured.trim());
+        }
+        this.file = file;
+        this.values = Map.copyOf(merge(readFile(Map.of())));
     }
 
     public String get(String key) {
@@ -40,4 +97,178 @@ public class MiniConfiguration {
     public boolean contains(String key) {
         return values.containsKey(key);
     }
+
+    public String getString(String key, String defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Returns the value of a key as a typed, live supplier that follows reloads.
+     * Reading it is a single volatile read; the value is converted once per reload.
+     * Calls with the same key and type return the same instance.
+     *
+     * @param type String, Integer, Boolean or Double (or the primitive types)
+     * @throws IllegalArgumentException if the type is unsupported or the current value cannot be converted
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ConfigValue<T> value(String key, Class<T> type) {
+        ValueKey valueKey = new ValueKey(key, type);
+        ConfigValue<?> value = configValues.get(valueKey);
+        if (value == null) {
+            // Locked against reload, so a new value cannot miss a concurrent update
+            synchronized (this) {
+                value = configValues.computeIfAbsent(valueKey, k -> new ConfigValue<>(key, type, values.get(key)));
+            }
+        }
+        return (ConfigValue<T>) value;
+    }
+
+    /**
+     * Registers a listener that is called with the changed keys after every reload that changed any.
+     */
+    public void addListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reads the config file again and applies what changed. Called by the watcher;
+     * can also be called directly. Does nothing without a config file.
+     *
+     * @return the keys whose value changed (added and removed keys included)
+     */
+    public synchronized Set<String> reload() {
+        if (file == null) return Set.of();
+
+        Map<String, String> previous = values;
+        Map<String, String> next = Map.copyOf(merge(readFile(previous)));
+        Set<String> changed = new HashSet<>();
+        for (String key : previous.keySet()) {
+            if (!Objects.equals(previous.get(key), next.get(key))) changed.add(key);
+        }
+        for (String key : next.keySet()) {
+            if (!previous.containsKey(key)) changed.add(key);
+        }
+        if (changed.isEmpty()) return Set.of();
+
+        values = next;
+        for (ConfigValue<?> value : configValues.values()) {
+            if (changed.contains(value.getKey())) {
+                value.update(next.get(value.getKey()));
+            }
+        }
+        log.info("Reloaded {}: {} changed", file, changed);
+        Set<String> changedKeys = Set.copyOf(changed);
+        for (Consumer<Set<String>> listener : listeners) {
+            try {
+                listener.accept(changedKeys);
+            } catch (RuntimeException e) {
+                log.error("Config reload listener failed: {}", e.getMessage());
+            }
+        }
+        return changedKeys;
+    }
+
+    /**
+     * Stops watching the config file.
+     */
+    @Override
+    public void close() {
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.warn("Failed to stop watching {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, String> merge(Map<String, String> fileValues) {
+        Map<String, String> merged = new HashMap<>(classPathValues);
+        merged.putAll(fileValues);
+        return merged;
+    }
+
+    /**
+     * @param fallback what to use if the file cannot be read: the current values
+     * @return the values of the config file only
+     */
+    private Map<String, String> readFile(Map<String, String> fallback) {
+        if (file == null) return Map.of();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            Map<String, String> fileValues = new HashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                fileValues.put(name, properties.getProperty(name));
+            }
+            return fileValues;
+        } catch (NoSuchFileException e) {
+            log.warn("Config file {} not found", file);
+            return Map.of();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to read config file {}, keeping the current values: {}", file, e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * Starts watching the config file on a daemon thread, if there is one and it is not
+     * watched yet. Separate from the constructor, so the watcher thread never sees a
+     * configuration that is still being constructed.
+     */
+    public synchronized void start() {
+        if (file == null || watchService != null) return;
+
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            WatchService service = directory.getFileSystem().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+        } catch (IOException e) {
+            log.error("Cannot watch config file {}: {}", file, e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(this::watch, "beanpeek-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching config file {}", file);
+    }
+
+    private void watch() {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Thread.sleep(SETTLE_MILLIS);
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (RuntimeException e) {
+                        // A failed reload must not stop the watcher, or later changes are never applied
+                        log.error("Failed to reload config file {}: {}", file, e.toString());
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching config file {}", file);
+        }
+    }
 }
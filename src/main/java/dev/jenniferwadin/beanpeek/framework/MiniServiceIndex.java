@@ -0,0 +1,86 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.processor.MiniServiceIndexProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads the @MiniService index written by MiniServiceIndexProcessor at compile time.
+ * Every META-INF/beanpeek/mini-services.idx on the classpath is merged, so beans
+ * from several jars are all found.
+ */
+@Slf4j
+public class MiniServiceIndex {
+
+    private final Set<String> classNames = new TreeSet<>();
+    private final boolean present;
+
+    private MiniServiceIndex(boolean present) {
+        this.present = present;
+    }
+
+    /**
+     * Loads and merges all index files visible to the given class loader.
+     *
+     * @param classLoader the class loader to search
+     * @return the index; isPresent() is false if no index file was found
+     */
+    public static MiniServiceIndex load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> resources = classLoader.getResources(MiniServiceIndexProcessor.INDEX_LOCATION);
+            if (!resources.hasMoreElements()) {
+                return new MiniServiceIndex(false);
+            }
+
+            MiniServiceIndex index = new MiniServiceIndex(true);
+            while (resources.hasMoreElements()) {
+                index.read(resources.nextElement());
+            }
+            return index;
+        } catch (IOException e) {
+            log.warn("Failed to read {}: {}", MiniServiceIndexProcessor.INDEX_LOCATION, e.getMessage());
+            return new MiniServiceIndex(false);
+        }
+    }
+
+    private void read(URL resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String className = MiniServiceIndexProcessor.className(line);
+                if (className != null) {
+                    classNames.add(className);
+                }
+            }
+        }
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * @param basePackage the package to search, including its subpackages
+     * @return the binary names of all indexed @MiniService classes in the package, sorted
+     */
+    public List<String> getClassNames(String basePackage) {
+        String prefix = basePackage + ".";
+        List<String> inPackage = new ArrayList<>();
+        for (String className : classNames) {
+            if (className.startsWith(prefix)) {
+                inPackage.add(className);
+            }
+        }
+        return inPackage;
+    }
+}
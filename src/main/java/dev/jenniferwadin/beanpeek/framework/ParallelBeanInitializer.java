@@ -0,0 +1,122 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Creates the beans of a resolved creation order concurrently.
+ * Every bean becomes a CompletableFuture that starts as soon as the futures of
+ * its own dependencies have completed, so independent beans (and the
+ * @MiniPostConstruct methods they run) overlap, and total time is bounded by
+ * the longest dependency path rather than the sum of all beans.
+ * The initializer never touches the container: dependency instances are
+ * handed over through the futures, and the factory registers each bean.
+ * If a bean fails, the beans that depend on it are not created, but the others are,
+ * and the initializer waits for all of them before returning.
+ */
+@Slf4j
+class ParallelBeanInitializer {
+
+    /**
+     * Creates, initializes and registers one bean from its definition and resolved dependencies,
+     * and returns what is registered, which is handed to the beans that depend on it.
+     */
+    @FunctionalInterface
+    interface BeanFactory {
+        Object create(BeanDefinition definition, Object[] dependencies);
+    }
+
+    /**
+     * @param created the beans registered successfully, keyed by bean class, in creation order
+     * @param failure the failure of the first bean in creation order that failed, or null
+     */
+    record Result(Map<Class<?>, Object> created, RuntimeException failure) {
+    }
+
+    private final int parallelism;
+
+    ParallelBeanInitializer(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param creationOrder the bean definitions, ordered so that dependencies come first
+     * @param registered    looks up dependencies that are already registered in the container
+     * @param factory       creates, initializes and registers a single bean
+     * @return the created beans and the first failure, once every bean has been created or failed
+     */
+    Result initialize(List<BeanDefinition> creationOrder, Function<Class<?>, Object> registered,
+                      BeanFactory factory) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<Class<?>, CompletableFuture<Object>> futures = new HashMap<>();
+            for (BeanDefinition definition : creationOrder) {
+                futures.put(definition.beanClass(), schedule(definition, futures, registered, factory, pool));
+            }
+
+            // Beans that do not depend on a failed one still finish; their instances must not get lost
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .handle((done, failure) -> null)
+                    .join();
+
+            Map<Class<?>, Object> created = new LinkedHashMap<>();
+            RuntimeException failure = null;
+            for (BeanDefinition definition : creationOrder) {
+                try {
+                    created.put(definition.beanClass(), join(futures.get(definition.beanClass())));
+                } catch (RuntimeException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+            if (failure == null) {
+                log.info("Initialized {} beans in parallel on {} threads", created.size(), parallelism);
+            } else {
+                log.warn("Initialized {} of {} beans in parallel on {} threads; the others failed",
+                        created.size(), creationOrder.size(), parallelism);
+            }
+            return new Result(created, failure);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static CompletableFuture<Object> schedule(BeanDefinition definition,
+                                                      Map<Class<?>, CompletableFuture<Object>> futures,
+                                                      Function<Class<?>, Object> registered,
+                                                      BeanFactory factory,
+                                                      ForkJoinPool pool) {
+        List<Class<?>> dependencies = definition.dependencies();
+        List<CompletableFuture<Object>> pending = new ArrayList<>(dependencies.size());
+        for (Class<?> dependency : dependencies) {
+            CompletableFuture<Object> future = futures.get(dependency);
+            pending.add(future != null ? future : CompletableFuture.completedFuture(registered.apply(dependency)));
+        }
+
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(ignored -> {
+                    Object[] resolved = new Object[pending.size()];
+                    for (int i = 0; i < resolved.length; i++) {
+                        resolved[i] = pending.get(i).join();
+                    }
+                    return factory.create(definition, resolved);
+                }, pool);
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * A point-in-time view of one bean pool.
+ *
+ * @param maxSize        the maximum number of instances
+ * @param created        instances created so far
+ * @param idle           instances currently in the pool
+ * @param hits           borrows served by an idle instance
+ * @param affinityHits   hits that got the instance the borrowing thread returned last
+ * @param misses         borrows that had to create an instance or wait for one
+ * @param waits          borrows that waited because every instance was in use
+ * @param totalWaitNanos time spent waiting, summed over all waits
+ * @param maxWaitNanos   the longest single wait
+ * @param timeouts       borrows that gave up after waiting maxWaitMillis
+ */
+public record PoolStats(int maxSize, int created, int idle,
+                        long hits, long affinityHits, long misses,
+                        long waits, long totalWaitNanos, long maxWaitNanos, long timeouts) {
+
+    /**
+     * @return the number of instances currently borrowed
+     */
+    public int inUse() {
+        return created - idle;
+    }
+
+    /**
+     * @return the mean wait of the borrows that waited, in nanoseconds; 0 if none did
+     */
+    public double meanWaitNanos() {
+        return waits == 0 ? 0 : (double) totalWaitNanos / waits;
+    }
+}
@@ -0,0 +1,45 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * An instance borrowed from a bean pool. Closing it returns the instance,
+ * so it is meant to be used in try-with-resources:
+ * <pre>
+ * try (PooledBean&lt;Parser&gt; parser = container.borrowBean(Parser.class)) {
+ *     parser.get().parse(input);
+ * }
+ * </pre>
+ * The instance must not be used after close. Not thread-safe; a borrowed
+ * instance belongs to the thread that borrowed it.
+ */
+public final class PooledBean<T> implements AutoCloseable {
+
+    private final BeanPool<T> pool;
+    private T instance;
+
+    PooledBean(BeanPool<T> pool, T instance) {
+        this.pool = pool;
+        this.instance = instance;
+    }
+
+    /**
+     * @return the borrowed instance
+     * @throws IllegalStateException if it has already been returned
+     */
+    public T get() {
+        if (instance == null) {
+            throw new IllegalStateException("Pooled bean has already been returned");
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the instance to the pool. Calling close more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (instance != null) {
+            pool.release(instance);
+            instance = null;
+        }
+    }
+}
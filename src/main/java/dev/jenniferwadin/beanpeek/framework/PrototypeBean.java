@@ -0,0 +1,33 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A bean with prototype scope: every lookup and every injection gets a new instance.
+ * The first instance is created at registration, so wiring errors show up at startup
+ * rather than on first use, and is handed out by the first call to get().
+ */
+final class PrototypeBean implements ScopedBean {
+
+    private final Supplier<Object> factory;
+    private final AtomicReference<Object> firstInstance;
+    private final Class<?> instanceClass;
+
+    PrototypeBean(Supplier<Object> factory) {
+        Object instance = factory.get();
+        this.factory = factory;
+        this.firstInstance = new AtomicReference<>(instance);
+        this.instanceClass = instance.getClass();
+    }
+
+    Object get() {
+        Object instance = firstInstance.getAndSet(null);
+        return instance != null ? instance : factory.get();
+    }
+
+    @Override
+    public Class<?> instanceClass() {
+        return instanceClass;
+    }
+}
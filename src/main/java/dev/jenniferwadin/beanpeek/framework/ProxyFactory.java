@@ -1,37 +1,294 @@
 package dev.jenniferwadin.beanpeek.framework;
 
-import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 /**
- * Creates a proxy for a bean if any of its methods are annotated with @LogExecutionTime.
- * Uses JDK dynamic proxies, so the target class must implement at least one interface.
+ * Creates a proxy for a bean if any of its methods is matched by a MethodInterceptor
+ * (for example @LogExecutionTime, handled by the TimingInterceptor, or @MiniCacheable,
+ * handled by the CacheInterceptor).
+ * For every proxied method the chain of applicable interceptors is resolved once,
+ * when the proxy is created, and stored as a MethodHandle.
+ * Methods without interceptors call straight through to the target.
+ * Two kinds of proxies are created:
+ * - JDK dynamic proxies, for beans that implement at least one interface (in AUTO mode).
+ * - Class-based proxies, generated as hidden subclasses by HiddenClassProxyGenerator,
+ *   for beans without interfaces, or for every bean in CLASS mode. These call the
+ *   chain with typed arguments and are instances of the bean class itself.
  */
 @Slf4j
 public class ProxyFactory {
 
-    public static Object createProxyIfNeeded(Class<?> clazz, Object target) {
+    /**
+     * Which kind of proxy to create for beans that implement interfaces.
+     * Beans without interfaces always get a class-based proxy.
+     */
+    public enum ProxyMode {
+        /**
+         * JDK dynamic proxies for beans with interfaces, class-based proxies otherwise.
+         */
+        AUTO,
+        /**
+         * Class-based proxies for all beans, so they can also be looked up by their concrete class.
+         */
+        CLASS
+    }
+
+    private static final List<String> OBJECT_METHODS = List.of("equals", "hashCode", "toString");
+    private static final MethodHandle LAZY_TARGET;
+
+    static {
+        try {
+            LAZY_TARGET = MethodHandles.lookup().findVirtual(LazyBean.class, "get", MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final List<MethodInterceptor> interceptors = new CopyOnWriteArrayList<>();
+    private final TimingInterceptor timingInterceptor = new TimingInterceptor();
+    private final CacheInterceptor cacheInterceptor = new CacheInterceptor();
+    private final BulkheadInterceptor bulkheadInterceptor = new BulkheadInterceptor();
+    private final BatchInterceptor batchInterceptor = new BatchInterceptor();
+    private final AsyncInterceptor asyncInterceptor;
+    private final ProxyMode proxyMode;
+
+    /**
+     * Creates a factory with the built-in AsyncInterceptor (without a concurrency cap),
+     * TimingInterceptor, CacheInterceptor, BulkheadInterceptor and BatchInterceptor, and every MethodInterceptor registered
+     * through ServiceLoader.
+     */
+    public ProxyFactory() {
+        this(ProxyMode.AUTO);
+    }
+
+    public ProxyFactory(ProxyMode proxyMode) {
+        this(proxyMode, new AsyncInterceptor());
+    }
+
+    /**
+     * @param asyncInterceptor the interceptor for @MiniAsync methods, configured by the container
+     */
+    public ProxyFactory(ProxyMode proxyMode, AsyncInterceptor asyncInterceptor) {
+        this.proxyMode = proxyMode;
+        this.asyncInterceptor = asyncInterceptor;
+        // Outermost, so everything else runs on the async method's virtual thread
+        interceptors.add(asyncInterceptor);
+        interceptors.add(timingInterceptor);
+        // Inside the timing, so timed methods show how fast the cache answers
+        interceptors.add(cacheInterceptor);
+        // Inside the cache, so cache hits need no permit
+        interceptors.add(bulkheadInterceptor);
+        // Inside the cache, so only misses are batched
+        interceptors.add(batchInterceptor);
+        for (MethodInterceptor interceptor : ServiceLoader.load(MethodInterceptor.class)) {
+            interceptors.add(interceptor);
+        }
+    }
+
+    /**
+     * @return the built-in interceptor that keeps the @LogExecutionTime histograms
+     */
+    public TimingInterceptor getTimingInterceptor() {
+        return timingInterceptor;
+    }
+
+    /**
+     * @return the built-in interceptor that runs @MiniAsync methods
+     */
+    public AsyncInterceptor getAsyncInterceptor() {
+        return asyncInterceptor;
+    }
+
+    /**
+     * @return the built-in interceptor that keeps the @MiniCacheable caches
+     */
+    public CacheInterceptor getCacheInterceptor() {
+        return cacheInterceptor;
+    }
+
+    /**
+     * @return the built-in interceptor that limits @MiniBulkhead methods
+     */
+    public BulkheadInterceptor getBulkheadInterceptor() {
+        return bulkheadInterceptor;
+    }
+
+    /**
+     * @return the built-in interceptor that collapses @MiniBatched calls
+     */
+    public BatchInterceptor getBatchInterceptor() {
+        return batchInterceptor;
+    }
+
+    /**
+     * Adds an interceptor. Interceptors wrap each other in registration order:
+     * the first registered interceptor is the outermost one.
+     * Only affects proxies created afterwards.
+     */
+    public void addInterceptor(MethodInterceptor interceptor) {
+        interceptors.add(interceptor);
+    }
+
+    public Object createProxyIfNeeded(Class<?> clazz, Object target) {
         // Kontroll: implementerar klassen något interface?
         Class<?>[] interfaces = clazz.getInterfaces();
-        if (interfaces.length == 0) {
-            return target; //kan bara göra proxy på interface
+        if (interfaces.length == 0 || proxyMode == ProxyMode.CLASS) {
+            return createClassProxyIfNeeded(clazz, target);
         }
 
-        //Finns någon metod annoterad med @LogExecutionTime?
-        boolean hasTimedMethod = Arrays.stream(clazz.getDeclaredMethods())
-                .anyMatch(method -> method.isAnnotationPresent(LogExecutionTime.class));
+        Map<Method, MethodHandle> dispatchTable = new HashMap<>();
+        boolean intercepted = false;
+
+        for (Class<?> proxiedInterface : interfaces) {
+            for (Method method : proxiedInterface.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) continue;
+
+                Method implementation = findImplementation(target.getClass(), method);
+                MethodHandle direct = directHandle(implementation, target);
+                MethodHandle chain = applyInterceptors(clazz, implementation, direct, other -> directHandle(other, target));
+
+                intercepted |= chain != direct;
+                dispatchTable.put(method, MethodHandleChains.spread(chain));
+            }
+        }
 
-        if (!hasTimedMethod) {
+        //Finns någon metod som ska interceptas?
+        if (!intercepted) {
             return target;
         }
 
+        for (String name : OBJECT_METHODS) {
+            for (Method method : Object.class.getMethods()) {
+                if (method.getName().equals(name)) {
+                    dispatchTable.put(method, MethodHandleChains.spread(directHandle(method, target)));
+                }
+            }
+        }
+
         return Proxy.newProxyInstance(
                 clazz.getClassLoader(),
                 interfaces,
-                new TimingInvocationHandler(target)
+                new InterceptingInvocationHandler(target, Map.copyOf(dispatchTable))
         );
     }
+
+    /**
+     * Creates a hidden subclass of the bean class that forwards every overridable
+     * method to its chain. Falls back to the plain target (with a warning) if the
+     * class cannot be subclassed, e.g. because it is final.
+     */
+    private Object createClassProxyIfNeeded(Class<?> clazz, Object target) {
+        List<Method> methods = HiddenClassProxyGenerator.overridableMethods(clazz);
+        List<MethodHandle> chains = new ArrayList<>(methods.size());
+        boolean intercepted = false;
+
+        for (Method method : methods) {
+            MethodHandle direct = directHandle(method, target);
+            MethodHandle chain = applyInterceptors(clazz, method, direct, other -> directHandle(other, target));
+
+            intercepted |= chain != direct;
+            chains.add(chain);
+        }
+
+        if (!intercepted) {
+            return target;
+        }
+
+        try {
+            return HiddenClassProxyGenerator.createProxy(clazz, methods, chains);
+        } catch (IllegalStateException e) {
+            log.warn("Interceptors on {} are ignored: {}", clazz.getSimpleName(), e.getMessage());
+            return target;
+        }
+    }
+
+    /**
+     * Creates a class-based proxy whose target is created on first use.
+     * Every overridable method asks the LazyBean for the target and then runs the
+     * usual interceptor chain on it, so the proxy also takes the place of the
+     * interceptor proxy the bean would otherwise get.
+     *
+     * @param clazz the bean class to extend
+     * @param lazy  creates the raw (not proxied) bean on first use
+     * @return the proxy
+     * @throws IllegalStateException if the class cannot be subclassed, e.g. because it is final
+     */
+    Object createLazyProxy(Class<?> clazz, LazyBean lazy) {
+        List<Method> methods = HiddenClassProxyGenerator.overridableMethods(clazz);
+        List<MethodHandle> chains = new ArrayList<>(methods.size());
+        for (Method method : methods) {
+            chains.add(applyInterceptors(clazz, method, lazyHandle(method, lazy), other -> lazyHandle(other, lazy)));
+        }
+        return HiddenClassProxyGenerator.createProxy(clazz, methods, chains);
+    }
+
+    /**
+     * Wraps the direct handle with every interceptor that applies to the method.
+     *
+     * @param beanClass     the class of the bean being proxied
+     * @param targetMethods gives the direct handle of any other method of the same target
+     * @return the finished chain, or the direct handle itself if no interceptor applies
+     */
+    private MethodHandle applyInterceptors(Class<?> beanClass, Method method, MethodHandle direct,
+                                           Function<Method, MethodHandle> targetMethods) {
+        MethodHandle chain = direct;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            MethodInterceptor interceptor = interceptors.get(i);
+            if (interceptor.appliesTo(method)) {
+                chain = interceptor.intercept(beanClass, method, chain, targetMethods);
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * @return the method the target actually runs for the given interface method,
+     *         so that annotations on the bean class are visible to the interceptors
+     */
+    private static Method findImplementation(Class<?> targetClass, Method method) {
+        try {
+            return targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return method;
+        }
+    }
+
+    /**
+     * @return a handle that calls the method on the lazily created target, typed exactly like the method
+     */
+    private static MethodHandle lazyHandle(Method method, LazyBean lazy) {
+        try {
+            method.setAccessible(true);
+            MethodHandle target = LAZY_TARGET.bindTo(lazy).asType(MethodType.methodType(method.getDeclaringClass()));
+            return MethodHandles.collectArguments(MethodHandles.lookup().unreflect(method), 0, target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + method, e);
+        }
+    }
+
+    /**
+     * @return a handle that calls the method on the target, typed exactly like the method
+     */
+    static MethodHandle directHandle(Method method, Object target) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).bindTo(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + method, e);
+        }
+    }
 }
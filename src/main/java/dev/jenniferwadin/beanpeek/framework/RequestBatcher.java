@@ -0,0 +1,162 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects concurrent single-key calls into batches for one @MiniBatched method.
+ * How it works:
+ * - A call adds itself to a lock-free queue and counts itself in pending; neither locks.
+ * - The call that makes pending 1 (the first of a batch) schedules a flush after the window.
+ * - The call that makes pending reach maxBatchSize flushes at once, on its own thread.
+ * - A flush takes up to maxBatchSize calls from the queue, calls the batch loader once
+ *   with their distinct keys, and completes every call's future. If calls are left over,
+ *   it schedules another flush, so no call waits longer than about one window.
+ * Flushes may run at the same time; each takes different calls from the queue.
+ * Callers block until their batch is done; scheduled flushes run on virtual threads.
+ * Every instance of a bean has its own batcher, since a batch goes to one target; the
+ * batchers of one method count into the same Counters.
+ */
+@Slf4j
+final class RequestBatcher<K, V> {
+
+    /**
+     * Loads the results of several keys at once.
+     */
+    @FunctionalInterface
+    interface BatchLoader<K, V> {
+        /**
+         * @return the result of each key; keys without a result may be left out
+         */
+        Map<K, V> load(List<K> keys) throws Throwable;
+    }
+
+    private record Call<K, V>(K key, long enqueuedNanos, CompletableFuture<V> result) {
+    }
+
+    /**
+     * The statistics of one @MiniBatched method, shared by the batchers of all its targets.
+     */
+    static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder failedBatches = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+
+        BatchStats stats() {
+            return new BatchStats(calls.sum(), batches.sum(), largestBatch.get(),
+                    totalWaitNanos.sum(), maxWaitNanos.get(), failedBatches.sum());
+        }
+    }
+
+    private final String name;
+    private final BatchLoader<K, V> loader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Counters counters;
+
+    private final ConcurrentLinkedQueue<Call<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * @param scheduler runs the window timers; it only starts flushes, never runs them
+     * @param counters  where the calls and batches are counted
+     */
+    RequestBatcher(String name, BatchLoader<K, V> loader, long windowMillis, int maxBatchSize,
+                   ScheduledExecutorService scheduler, Counters counters) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize of " + name + " must be at least 1, was " + maxBatchSize);
+        }
+        this.name = name;
+        this.loader = loader;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.counters = counters;
+    }
+
+    /**
+     * @return the result of the key, once the batch it joined is done
+     * @throws Throwable what the batch loader threw
+     */
+    V get(K key) throws Throwable {
+        Call<K, V> call = new Call<>(key, System.nanoTime(), new CompletableFuture<>());
+        queue.add(call);
+        int count = pending.incrementAndGet();
+        if (count >= maxBatchSize) {
+            flush();
+        } else if (count == 1) {
+            scheduleFlush();
+        }
+        try {
+            return call.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void scheduleFlush() {
+        try {
+            scheduler.schedule(() -> Thread.ofVirtual().name("beanpeek-batch-" + name).start(this::flush),
+                    windowNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shut down: nobody else will send the batch
+            flush();
+        }
+    }
+
+    private void flush() {
+        List<Call<K, V>> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+        Call<K, V> call;
+        while (batch.size() < maxBatchSize && (call = queue.poll()) != null) {
+            pending.decrementAndGet();
+            batch.add(call);
+        }
+        if (pending.get() > 0) {
+            scheduleFlush();
+        }
+        if (batch.isEmpty()) return;
+
+        long now = System.nanoTime();
+        Set<K> keys = new LinkedHashSet<>();
+        for (Call<K, V> queued : batch) {
+            keys.add(queued.key());
+            long wait = now - queued.enqueuedNanos();
+            counters.totalWaitNanos.add(wait);
+            counters.maxWaitNanos.accumulate(wait);
+        }
+        counters.calls.add(batch.size());
+        counters.batches.increment();
+        counters.largestBatch.accumulate(batch.size());
+
+        try {
+            Map<K, V> results = loader.load(new ArrayList<>(keys));
+            for (Call<K, V> queued : batch) {
+                queued.result().complete(results.get(queued.key()));
+            }
+        } catch (Throwable e) {
+            counters.failedBatches.increment();
+            log.warn("Batch of {} calls to {} failed: {}", batch.size(), name, e.toString());
+            for (Call<K, V> queued : batch) {
+                queued.result().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * What the container registers for a bean that is not a singleton.
+ * Lookups go through the scope instead of returning a shared instance.
+ */
+interface ScopedBean {
+
+    /**
+     * @return the runtime class of the instances this scope hands out (a proxy class, if the bean is proxied),
+     *         used to index the bean by type
+     */
+    Class<?> instanceClass();
+}
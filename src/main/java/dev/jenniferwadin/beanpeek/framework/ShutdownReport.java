@@ -0,0 +1,41 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.List;
+
+/**
+ * The result of BeanContainer.shutdown.
+ *
+ * @param totalNanos wall-clock time of the whole shutdown
+ * @param beans      every singleton that was created, in the order its destruction started
+ *                   (skipped beans last)
+ */
+public record ShutdownReport(long totalNanos, List<BeanShutdown> beans) {
+
+    /**
+     * @return the beans that did not finish within their timeout or the overall deadline
+     */
+    public List<Class<?>> exceededBudget() {
+        return beans.stream()
+                .filter(bean -> bean.status() == BeanShutdown.Status.TIMED_OUT || bean.status() == BeanShutdown.Status.SKIPPED)
+                .<Class<?>>map(BeanShutdown::beanClass)
+                .toList();
+    }
+
+    /**
+     * @return whether every bean was destroyed without failure or timeout
+     */
+    public boolean isClean() {
+        return beans.stream().allMatch(bean -> bean.status() == BeanShutdown.Status.COMPLETED);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("%d beans in %.3f ms", beans.size(), totalNanos / 1e6));
+        for (BeanShutdown bean : beans) {
+            sb.append(String.format("%n  %s: %s in %.3f ms", bean.beanClass().getSimpleName(),
+                    bean.status().name().toLowerCase().replace('_', ' '), bean.nanos() / 1e6));
+            if (bean.failure() != null) sb.append(" (").append(bean.failure()).append(")");
+        }
+        return sb.toString();
+    }
+}
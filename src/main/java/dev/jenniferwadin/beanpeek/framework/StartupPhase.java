@@ -0,0 +1,36 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+/**
+ * The phases of a bean's lifecycle that the container measures.
+ * Each phase is also recorded as a JDK Flight Recorder event (see BeanPhaseEvent).
+ */
+public enum StartupPhase {
+    /**
+     * Finding the @MiniService classes of a package (index or class path scan).
+     */
+    SCAN,
+    /**
+     * Selecting a constructor whose dependencies can be resolved.
+     */
+    RESOLVE,
+    /**
+     * Running the constructor.
+     */
+    INSTANTIATE,
+    /**
+     * Setting the @MiniConfigProperty fields.
+     */
+    INJECT,
+    /**
+     * Running the @MiniPostConstruct methods.
+     */
+    POST_CONSTRUCT,
+    /**
+     * Creating the proxy (AOP or lazy) around the bean.
+     */
+    PROXY,
+    /**
+     * Running the @MiniPreDestroy methods at shutdown.
+     */
+    PRE_DESTROY
+}
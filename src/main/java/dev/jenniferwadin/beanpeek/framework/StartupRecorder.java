@@ -0,0 +1,190 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the lifecycle phases of beans: every phase is emitted as a BeanPhaseEvent
+ * and, until the bean is registered, added to its timing for the StartupReport.
+ * Usage: event = begin(phase, beanClass); ...work...; end(event).
+ * Once a bean is complete (registered), its later phases (new prototype or pool
+ * instances, lazy initialization, pre-destroy) are only emitted as events.
+ * Callers on a hot path check isActive first and skip the measuring altogether:
+ * it is false for registered beans while Flight Recorder has never been started.
+ */
+final class StartupRecorder {
+
+    /**
+     * Emits events but keeps no timings; for factories used outside a container.
+     */
+    static final StartupRecorder EVENTS_ONLY = new StartupRecorder(false);
+
+    private final boolean reporting;
+    private final Map<Class<?>, BeanTiming> timings = new ConcurrentHashMap<>();
+    private final LongAdder scanNanos = new LongAdder();
+    private final LongAdder resolveNanos = new LongAdder();
+
+    StartupRecorder() {
+        this(true);
+    }
+
+    private StartupRecorder(boolean reporting) {
+        this.reporting = reporting;
+    }
+
+    /**
+     * @return whether the phases of this bean class are measured at all
+     */
+    boolean isActive(Class<?> beanClass) {
+        if (FlightRecorder.isInitialized()) return true;
+        if (!reporting) return false;
+        BeanTiming timing = timings.get(beanClass);
+        return timing == null || !timing.complete;
+    }
+
+    /**
+     * @param beanClass the bean the phase belongs to; null for SCAN and for resolving a whole graph
+     * @return the started event, to be passed to end
+     */
+    BeanPhaseEvent begin(StartupPhase phase, Class<?> beanClass) {
+        BeanPhaseEvent event = switch (phase) {
+            case SCAN -> new BeanPhaseEvent.Scan();
+            case RESOLVE -> new BeanPhaseEvent.Resolve();
+            case INSTANTIATE -> new BeanPhaseEvent.Instantiate();
+            case INJECT -> new BeanPhaseEvent.Inject();
+            case POST_CONSTRUCT -> new BeanPhaseEvent.PostConstruct();
+            case PROXY -> new BeanPhaseEvent.Proxy();
+            case PRE_DESTROY -> new BeanPhaseEvent.PreDestroy();
+        };
+        event.phase = phase;
+        event.beanClass = beanClass;
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    void end(BeanPhaseEvent event) {
+        long nanos = System.nanoTime() - event.startNanos;
+        event.commit();
+        if (!reporting) return;
+
+        if (event.beanClass == null) {
+            (event.phase == StartupPhase.SCAN ? scanNanos : resolveNanos).add(nanos);
+            return;
+        }
+        BeanTiming timing = timings.computeIfAbsent(event.beanClass, BeanTiming::new);
+        if (!timing.complete) {
+            timing.phaseNanos.addAndGet(event.phase.ordinal(), nanos);
+        }
+    }
+
+    /**
+     * Records the beans passed to a bean's constructor, for the critical path.
+     */
+    void setDependencies(Class<?> beanClass, List<Class<?>> dependencies) {
+        if (reporting) {
+            timings.computeIfAbsent(beanClass, BeanTiming::new).dependencies = List.copyOf(dependencies);
+        }
+    }
+
+    /**
+     * Ends the startup timing of a bean; called when it is registered.
+     */
+    void complete(Class<?> beanClass) {
+        BeanTiming timing = timings.get(beanClass);
+        if (timing != null) {
+            timing.complete = true;
+        }
+    }
+
+    StartupReport report() {
+        // Beans may still be registered meanwhile; the report covers those registered by now
+        List<BeanTiming> seen = timings.values().stream().filter(timing -> timing.complete).toList();
+        Map<Class<?>, Long> pathNanos = new HashMap<>();
+        Class<?> slowest = null;
+        for (BeanTiming timing : seen) {
+            long path = pathNanos(timing.beanClass, pathNanos);
+            if (slowest == null || path > pathNanos.get(slowest)) {
+                slowest = timing.beanClass;
+            }
+        }
+
+        // Follow the slowest dependency back from the slowest bean
+        List<Class<?>> criticalPath = new ArrayList<>();
+        for (Class<?> next = slowest; next != null; ) {
+            criticalPath.add(next);
+            Class<?> slowestDependency = null;
+            for (Class<?> dependency : timings.get(next).dependencies) {
+                if (timings.containsKey(dependency) && (slowestDependency == null
+                        || pathNanos(dependency, pathNanos) > pathNanos(slowestDependency, pathNanos))) {
+                    slowestDependency = dependency;
+                }
+            }
+            next = slowestDependency;
+        }
+        Collections.reverse(criticalPath);
+
+        List<BeanStartupTiming> beans = new ArrayList<>(seen.size());
+        for (BeanTiming timing : seen) {
+            Map<StartupPhase, Long> phases = new EnumMap<>(StartupPhase.class);
+            long self = 0;
+            for (StartupPhase phase : StartupPhase.values()) {
+                long nanos = timing.phaseNanos.get(phase.ordinal());
+                if (nanos > 0) {
+                    phases.put(phase, nanos);
+                    self += nanos;
+                }
+            }
+            beans.add(new BeanStartupTiming(timing.beanClass, timing.dependencies, Collections.unmodifiableMap(phases),
+                    self, pathNanos(timing.beanClass, pathNanos), criticalPath.contains(timing.beanClass)));
+        }
+        beans.sort(Comparator.comparingLong(BeanStartupTiming::pathNanos).reversed()
+                .thenComparing(timing -> timing.beanClass().getName()));
+
+        return new StartupReport(scanNanos.sum(), resolveNanos.sum(),
+                slowest == null ? 0 : pathNanos.get(slowest), List.copyOf(criticalPath), List.copyOf(beans));
+    }
+
+    /**
+     * The time of the bean plus that of its slowest chain of dependencies; memoized, since
+     * beans share dependencies. Dependencies created outside this container count as 0.
+     */
+    private long pathNanos(Class<?> beanClass, Map<Class<?>, Long> memo) {
+        Long known = memo.get(beanClass);
+        if (known != null) return known;
+        BeanTiming timing = timings.get(beanClass);
+        if (timing == null) return 0;
+
+        long slowestDependency = 0;
+        for (Class<?> dependency : timing.dependencies) {
+            slowestDependency = Math.max(slowestDependency, pathNanos(dependency, memo));
+        }
+        long self = 0;
+        for (int i = 0; i < timing.phaseNanos.length(); i++) {
+            self += timing.phaseNanos.get(i);
+        }
+        memo.put(beanClass, self + slowestDependency);
+        return self + slowestDependency;
+    }
+
+    private static final class BeanTiming {
+        final Class<?> beanClass;
+        final AtomicLongArray phaseNanos = new AtomicLongArray(StartupPhase.values().length);
+        volatile List<Class<?>> dependencies = List.of();
+        volatile boolean complete;
+
+        BeanTiming(Class<?> beanClass) {
+            this.beanClass = beanClass;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the container's startup time went.
+ * Beans are ranked by pathNanos: the beans at the top end the slowest chains of
+ * dependent bean creations, and speeding up a bean on the critical path is what
+ * shortens startup. Times are wall-clock nanoseconds.
+ *
+ * @param scanNanos         time spent finding @MiniService classes
+ * @param resolveNanos      time spent building dependency graphs (per-bean constructor
+ *                          resolution is part of the bean timings)
+ * @param criticalPathNanos the pathNanos of the slowest chain
+ * @param criticalPath      the beans of the slowest chain, dependencies first
+ * @param beans             every bean created at startup, slowest path first
+ */
+public record StartupReport(long scanNanos, long resolveNanos, long criticalPathNanos,
+                            List<Class<?>> criticalPath, List<BeanStartupTiming> beans) {
+
+    /**
+     * @return a multi-line summary; beans on the critical path are marked with "*"
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("scan %.3f ms, resolve %.3f ms, critical path %.3f ms:",
+                scanNanos / 1e6, resolveNanos / 1e6, criticalPathNanos / 1e6));
+        for (int i = 0; i < criticalPath.size(); i++) {
+            sb.append(i == 0 ? " " : " -> ").append(criticalPath.get(i).getSimpleName());
+        }
+        for (BeanStartupTiming bean : beans) {
+            sb.append(String.format("%n %s %s: path %.3f ms, self %.3f ms (",
+                    bean.onCriticalPath() ? "*" : " ", bean.beanClass().getSimpleName(),
+                    bean.pathNanos() / 1e6, bean.selfNanos() / 1e6));
+            boolean first = true;
+            for (Map.Entry<StartupPhase, Long> phase : bean.phaseNanos().entrySet()) {
+                sb.append(first ? "" : ", ")
+                        .append(phase.getKey().name().toLowerCase().replace('_', '-'))
+                        .append(String.format(" %.3f ms", phase.getValue() / 1e6));
+                first = false;
+            }
+            sb.append(")");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the execution time of methods annotated with @LogExecutionTime.
+ * Every timed method records into its own LatencyHistogram, so overloads and classes
+ * with the same simple name are measured apart (see MethodNames). The timing code is woven into the method's handle
+ * chain once, when the proxy is created, and a call allocates nothing: the start time
+ * is passed along as a primitive long and the histogram is bound into the chain.
+ * Calls that pass the annotation's slow-call threshold and sampling rate are handed
+ * to an AsyncTimingLog, which logs them on a background thread.
+ */
+public class TimingInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle NANO_TIME;
+    private static final MethodHandle FINISH;
+    private static final MethodHandle FINISH_WITH_ARGUMENTS;
+    private static final int LOG_BUFFER_SIZE = 1024;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NANO_TIME = lookup.findStatic(System.class, "nanoTime", MethodType.methodType(long.class));
+            FINISH = lookup.findVirtual(TimedMethod.class, "finish",
+                    MethodType.methodType(void.class, long.class));
+            FINISH_WITH_ARGUMENTS = lookup.findVirtual(TimedMethod.class, "finish",
+                    MethodType.methodType(void.class, long.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The per-method state bound into a timed method's chain.
+     */
+    private record TimedMethod(String name, LatencyHistogram histogram, AsyncTimingLog timingLog,
+                               long slowThresholdNanos, double sampleRate) {
+
+        void finish(long start) {
+            long duration = System.nanoTime() - start;
+            histogram.record(duration);
+            if (shouldLog(duration)) {
+                timingLog.offer(name, duration, null);
+            }
+        }
+
+        void finish(long start, Object[] arguments) {
+            long duration = System.nanoTime() - start;
+            histogram.record(duration);
+            if (shouldLog(duration)) {
+                timingLog.offer(name, duration, arguments);
+            }
+        }
+
+        private boolean shouldLog(long duration) {
+            return duration >= slowThresholdNanos
+                    && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+        }
+    }
+
+    private final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final AsyncTimingLog timingLog;
+
+    public TimingInterceptor() {
+        this(LOG_BUFFER_SIZE);
+    }
+
+    /**
+     * @param logBufferSize how many log events can wait for the background thread before new ones are dropped
+     */
+    public TimingInterceptor(int logBufferSize) {
+        this.timingLog = new AsyncTimingLog(logBufferSize);
+    }
+
+    @Override
+    public boolean appliesTo(Method method) {
+        return method.isAnnotationPresent(LogExecutionTime.class);
+    }
+
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle next) {
+        LatencyHistogram histogram = histograms.computeIfAbsent(method, key -> new LatencyHistogram());
+        LogExecutionTime settings = method.getAnnotation(LogExecutionTime.class);
+        TimedMethod timed = new TimedMethod(MethodNames.shortName(method), histogram, timingLog,
+                TimeUnit.MILLISECONDS.toNanos(settings.slowThresholdMillis()), settings.sampleRate());
+
+        MethodHandle finish;
+        if (settings.includeArguments()) {
+            // (long start, Object[] arguments) -> (long start, typed arguments...), boxing at this point only
+            finish = FINISH_WITH_ARGUMENTS.bindTo(timed)
+                    .asCollector(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(void.class, long.class).appendParameterTypes(method.getParameterTypes()));
+        } else {
+            finish = FINISH.bindTo(timed);
+        }
+        return MethodHandleChains.around(next, NANO_TIME, finish);
+    }
+
+    /**
+     * @return the number of log events dropped because the background thread fell behind
+     */
+    public long getDroppedLogEvents() {
+        return timingLog.getDroppedEvents();
+    }
+
+    /**
+     * Writes the log events that are still queued and stops the background thread.
+     */
+    public void close() {
+        timingLog.close();
+    }
+
+    /**
+     * @return everything recorded per timed method since startup (or the last reset), sorted by name
+     */
+    public Map<String, LatencySnapshot> getSnapshots() {
+        return MethodNames.byName(histograms, LatencyHistogram::snapshot);
+    }
+
+    /**
+     * @return what was recorded per timed method since the previous call, sorted by name
+     */
+    public Map<String, LatencySnapshot> getIntervalSnapshots() {
+        return MethodNames.byName(histograms, LatencyHistogram::intervalSnapshot);
+    }
+
+    /**
+     * Clears the histograms of all timed methods.
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -1,5 +1,9 @@
 package dev.jenniferwadin.beanpeek.miniservice;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface MathMiniService {
     int slowAddition(int a, int b);
+
+    CompletableFuture<Integer> slowAdditionAsync(int a, int b);
 }
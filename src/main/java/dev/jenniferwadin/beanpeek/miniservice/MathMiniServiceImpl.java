@@ -1,8 +1,11 @@
 package dev.jenniferwadin.beanpeek.miniservice;
 
 import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
+import dev.jenniferwadin.beanpeek.annotation.MiniAsync;
 import dev.jenniferwadin.beanpeek.annotation.MiniService;
 
+import java.util.concurrent.CompletableFuture;
+
 @MiniService
 public class MathMiniServiceImpl implements MathMiniService {
 
@@ -16,4 +19,11 @@ public class MathMiniServiceImpl implements MathMiniService {
         }
         return a + b;
     }
+
+    @Override
+    @MiniAsync
+    @LogExecutionTime
+    public CompletableFuture<Integer> slowAdditionAsync(int a, int b) {
+        return CompletableFuture.completedFuture(slowAddition(a, b));
+    }
 }
@@ -0,0 +1,138 @@
+package dev.jenniferwadin.beanpeek.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that writes an index of every @MiniService class to
+ * META-INF/beanpeek/mini-services.idx at compile time.
+ * The BeanScanner reads this index at startup instead of scanning the classpath,
+ * so only actual beans are loaded.
+ * Index format (one line per class, sorted by class name):
+ * <pre>
+ * com.example.Repository
+ * com.example.Service
+ * </pre>
+ * Class names are binary names (nested classes use '$'), so they can be passed
+ * to Class.forName directly. Constructors are not indexed: the DependencyGraph picks
+ * one from the loaded class, which costs no more than reading it from the index.
+ * The processor claims @MiniService, so no other processor is asked for it.
+ * On incremental builds the existing index is merged: entries for classes that
+ * still exist and are still annotated are kept.
+ */
+@SupportedAnnotationTypes(MiniServiceIndexProcessor.MINI_SERVICE)
+public class MiniServiceIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/beanpeek/mini-services.idx";
+
+    static final String MINI_SERVICE = "dev.jenniferwadin.beanpeek.annotation.MiniService";
+
+    private final Set<String> entries = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        readExistingIndex();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    addEntry((TypeElement) element);
+                }
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return true;
+    }
+
+    private void addEntry(TypeElement type) {
+        entries.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+    }
+
+    /**
+     * @return the class name of an index line, or null for comments and blank lines
+     */
+    public static String className(String line) {
+        String entry = line.strip();
+        return entry.isEmpty() || entry.startsWith("#") ? null : entry;
+    }
+
+    /**
+     * Keeps entries from a previous compilation whose classes are not part of this
+     * compilation, as long as they still exist and are still annotated.
+     */
+    private void readExistingIndex() {
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Reader reader = existing.openReader(true); BufferedReader lines = new BufferedReader(reader)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    String className = className(line);
+                    if (className != null && isStillMiniService(className)) {
+                        entries.add(className);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No index from a previous compilation
+        }
+    }
+
+    private boolean isStillMiniService(String binaryName) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+        if (type == null) return false;
+
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(MINI_SERVICE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        if (entries.isEmpty()) return;
+
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                writer.write("# Generated by MiniServiceIndexProcessor\n");
+                for (String className : entries) {
+                    writer.write(className + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+}
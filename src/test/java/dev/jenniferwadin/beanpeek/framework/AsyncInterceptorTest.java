@@ -0,0 +1,121 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniAsync;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncInterceptorTest {
+
+    static class Mailer {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<String> threads = new ArrayList<>();
+
+        @MiniAsync
+        public CompletableFuture<String> send(String to) throws InterruptedException {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            synchronized (threads) {
+                threads.add(Thread.currentThread().isVirtual() ? "virtual" : Thread.currentThread().getName());
+            }
+            release.await();
+            running.decrementAndGet();
+            return CompletableFuture.completedFuture("sent to " + to);
+        }
+
+        @MiniAsync
+        public CompletableFuture<String> bounce() {
+            throw new IllegalArgumentException("no such address");
+        }
+    }
+
+    abstract static class Job {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @MiniAsync
+        public CompletableFuture<Void> run() throws InterruptedException {
+            started.countDown();
+            release.await();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static class ReportJob extends Job {
+    }
+
+    static class CleanupJob extends Job {
+    }
+
+    @Test
+    void capsEveryBeanOnItsOwnEvenForInheritedMethods() throws Exception {
+        AsyncInterceptor async = new AsyncInterceptor(beanClass -> 1);
+        ProxyFactory proxyFactory = new ProxyFactory(ProxyFactory.ProxyMode.AUTO, async);
+        ReportJob report = new ReportJob();
+        CleanupJob cleanup = new CleanupJob();
+        Job reportProxy = (Job) proxyFactory.createProxyIfNeeded(ReportJob.class, report);
+        Job cleanupProxy = (Job) proxyFactory.createProxyIfNeeded(CleanupJob.class, cleanup);
+
+        CompletableFuture<Void> reportRun = reportProxy.run();
+        CompletableFuture<Void> cleanupRun = cleanupProxy.run();
+        assertTrue(report.started.await(5, TimeUnit.SECONDS));
+        assertTrue(cleanup.started.await(5, TimeUnit.SECONDS));
+
+        report.release.countDown();
+        cleanup.release.countDown();
+        reportRun.get(5, TimeUnit.SECONDS);
+        cleanupRun.get(5, TimeUnit.SECONDS);
+        assertTrue(async.close(1_000));
+    }
+
+    @Test
+    void runsCallsOnVirtualThreadsWithinTheBeanCap() throws Exception {
+        AsyncInterceptor async = new AsyncInterceptor(beanClass -> 4);
+        ProxyFactory proxyFactory = new ProxyFactory(ProxyFactory.ProxyMode.AUTO, async);
+        Mailer target = new Mailer();
+        Mailer mailer = (Mailer) proxyFactory.createProxyIfNeeded(Mailer.class, target);
+
+        List<CompletableFuture<String>> sent = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            sent.add(mailer.send("user" + i));
+        }
+        Thread.sleep(50);
+        assertFalse(sent.get(0).isDone());
+        assertEquals(4, target.running.get());
+
+        target.release.countDown();
+        for (int i = 0; i < sent.size(); i++) {
+            assertEquals("sent to user" + i, sent.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(4, target.maxRunning.get());
+        assertTrue(target.threads.stream().allMatch("virtual"::equals));
+        assertTrue(async.close(1_000));
+    }
+
+    @Test
+    void failsTheFutureWhenTheMethodThrowsOrTheContainerIsShutDown() {
+        AsyncInterceptor async = new AsyncInterceptor();
+        ProxyFactory proxyFactory = new ProxyFactory(ProxyFactory.ProxyMode.AUTO, async);
+        Mailer mailer = (Mailer) proxyFactory.createProxyIfNeeded(Mailer.class, new Mailer());
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> mailer.bounce().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+
+        async.close(1_000);
+        failure = assertThrows(ExecutionException.class, () -> mailer.bounce().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+}
@@ -0,0 +1,100 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncPostConstructTest {
+
+    static CompletableFuture<Void> cacheLoaded = new CompletableFuture<>();
+    static CompletableFuture<Void> neverDone = new CompletableFuture<>();
+
+    @MiniService
+    static class Cache {
+        volatile boolean warm;
+
+        @MiniPostConstruct
+        CompletableFuture<Void> load() {
+            return cacheLoaded.thenRun(() -> warm = true);
+        }
+    }
+
+    @MiniService
+    static class Clock {
+    }
+
+    @MiniService
+    static class Catalog {
+        final boolean cacheWasWarm;
+
+        Catalog(Cache cache) {
+            cacheWasWarm = cache.warm;
+        }
+    }
+
+    @Test
+    void overlapsInitializationWithStartupAndWaitsOnlyForDependencies() throws Exception {
+        cacheLoaded = new CompletableFuture<>();
+        BeanContainer container = BeanContainerTest.containerWith(Cache.class, Clock.class);
+
+        assertNotNull(container.getBean(Clock.class));
+        assertFalse(container.readiness().isDone());
+
+        CompletableFuture<Void> catalog = CompletableFuture.runAsync(() -> container.registerBeans(
+                new DependencyGraph(List.of(Catalog.class), container.getRegisteredBeanClasses()).getCreationOrder()));
+        Thread.sleep(50);
+        assertFalse(catalog.isDone());
+
+        cacheLoaded.complete(null);
+        catalog.get(5, TimeUnit.SECONDS);
+        assertTrue(container.getBean(Catalog.class).cacheWasWarm);
+        container.awaitReady();
+        assertTrue(container.readiness().isDone());
+    }
+
+    @MiniService
+    static class Connection {
+        @MiniPostConstruct(async = true)
+        void connect() {
+            throw new IllegalStateException("no network");
+        }
+    }
+
+    @MiniService
+    static class Index {
+        @MiniPostConstruct
+        CompletableFuture<Void> build() {
+            return neverDone;
+        }
+    }
+
+    @MiniService
+    static class Repository {
+        Repository(Connection connection) {
+        }
+    }
+
+    @Test
+    void failsFastWhenAnInitializerFails() {
+        BeanContainer container = BeanContainerTest.containerWith(Connection.class, Index.class);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, container::awaitReady);
+        assertTrue(failure.getMessage().contains("Connection"));
+        assertEquals("no network", failure.getCause().getMessage());
+
+        List<BeanDefinition> repository = new DependencyGraph(List.of(Repository.class),
+                container.getRegisteredBeanClasses()).getCreationOrder();
+        assertThrows(IllegalStateException.class, () -> container.registerBeans(repository));
+        container.shutdown();
+    }
+}
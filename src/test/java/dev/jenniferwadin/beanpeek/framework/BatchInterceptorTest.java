@@ -0,0 +1,120 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniBatched;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchInterceptorTest {
+
+    static class Users {
+        final AtomicInteger roundTrips = new AtomicInteger();
+
+        @MiniBatched(batchMethod = "findAll", windowMillis = 20, maxBatchSize = 50)
+        public String find(long id) {
+            throw new AssertionError("called through findAll only");
+        }
+
+        public Map<Long, String> findAll(List<Long> ids) {
+            roundTrips.incrementAndGet();
+            Map<Long, String> users = new HashMap<>();
+            for (long id : ids) {
+                if (id >= 0) users.put(id, "user" + id);
+            }
+            return users;
+        }
+
+        @MiniBatched(batchMethod = "lengths")
+        public int length(String word) {
+            throw new AssertionError("called through lengths only");
+        }
+
+        public List<Integer> lengths(List<String> words) {
+            if (words.contains("boom")) throw new IllegalArgumentException("boom");
+            return words.stream().map(String::length).toList();
+        }
+    }
+
+    @Test
+    void collapsesConcurrentCallsIntoBatches() throws Exception {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Users target = new Users();
+        Users users = (Users) proxyFactory.createProxyIfNeeded(Users.class, target);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<String>> found = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long id = 0; id < 200; id++) {
+                long key = id % 100;
+                found.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return users.find(key);
+                }, callers));
+            }
+            start.countDown();
+            for (int i = 0; i < found.size(); i++) {
+                assertEquals("user" + i % 100, found.get(i).get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertNull(users.find(-1));
+
+        BatchStats stats = proxyFactory.getBatchInterceptor().getStats().get("Users.find");
+        assertEquals(201, stats.calls());
+        assertEquals(target.roundTrips.get(), stats.batches());
+        assertTrue(stats.batches() <= 20, "batches: " + stats.batches());
+        assertTrue(stats.maxBatchSize() <= 50);
+        assertTrue(stats.meanBatchSize() > 1);
+    }
+
+    @Test
+    void mapsListResultsByPositionAndFailsTheWholeBatch() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Users users = (Users) proxyFactory.createProxyIfNeeded(Users.class, new Users());
+
+        assertEquals(5, users.length("hello"));
+        assertThrows(IllegalArgumentException.class, () -> users.length("boom"));
+        assertEquals(1, proxyFactory.getBatchInterceptor().getStats().get("Users.length").failedBatches());
+    }
+
+    @Test
+    void countsTheBatchesOfAllInstancesOfAMethod() throws Exception {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Users first = (Users) proxyFactory.createProxyIfNeeded(Users.class, new Users());
+        Users second = (Users) proxyFactory.createProxyIfNeeded(Users.class, new Users());
+
+        assertEquals(5, first.length("hello"));
+        assertEquals(2, second.length("hi"));
+        assertEquals(2, proxyFactory.getBatchInterceptor().getStats().get("Users.length").calls());
+    }
+
+    @Test
+    void leavesTheMethodUnbatchedWithoutTheBeansOtherMethods() throws Exception {
+        Method length = Users.class.getMethod("length", String.class);
+        MethodHandle next = MethodHandles.constant(int.class, 7);
+        next = MethodHandles.dropArguments(next, 0, String.class);
+
+        assertSame(next, new BatchInterceptor().intercept(length, next));
+    }
+}
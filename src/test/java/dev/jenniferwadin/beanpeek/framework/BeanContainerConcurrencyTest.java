@@ -0,0 +1,105 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeanContainerConcurrencyTest {
+
+    interface Clock {
+        long now();
+    }
+
+    @MiniService
+    static class SystemClock implements Clock {
+        static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+        SystemClock() {
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        @Override
+        public long now() {
+            return 42;
+        }
+    }
+
+    @MiniService
+    static class Scheduler {
+        static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+        final SystemClock clock;
+        private boolean started;
+
+        Scheduler(SystemClock clock) {
+            this.clock = clock;
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        @MiniPostConstruct
+        void start() throws InterruptedException {
+            // Widens the window in which a half-initialized bean could leak out
+            Thread.sleep(20);
+            started = true;
+        }
+    }
+
+    @Test
+    void registersEachBeanOnceAndNeverPublishesItBeforeInitialization() throws Exception {
+        SystemClock.CONSTRUCTED.set(0);
+        Scheduler.CONSTRUCTED.set(0);
+        BeanContainer container = new BeanContainer();
+        List<BeanDefinition> order = new DependencyGraph(List.of(SystemClock.class, Scheduler.class), Set.of())
+                .getCreationOrder();
+        int writers = 4;
+        int readers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    container.registerBeans(order);
+                    return null;
+                }));
+            }
+            for (int i = 0; i < readers; i++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    while (!container.getRegisteredBeanClasses().contains(Scheduler.class)) {
+                        Thread.onSpinWait();
+                    }
+                    Scheduler scheduler = container.getBean(Scheduler.class);
+                    assertTrue(scheduler.started, "bean visible before @MiniPostConstruct finished");
+                    assertEquals(42, scheduler.clock.now());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, SystemClock.CONSTRUCTED.get());
+        assertEquals(1, Scheduler.CONSTRUCTED.get());
+        assertEquals(List.of(container.getBean(SystemClock.class)), container.getBeansOfType(Clock.class));
+    }
+}
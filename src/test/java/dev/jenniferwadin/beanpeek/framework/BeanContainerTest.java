@@ -0,0 +1,122 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniScope;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeanContainerTest {
+
+    interface Store {
+    }
+
+    abstract static class AbstractStore implements Store {
+    }
+
+    @MiniService
+    static class MemoryStore extends AbstractStore {
+    }
+
+    @MiniService
+    static class FileStore implements Store {
+    }
+
+    interface Parser {
+    }
+
+    @MiniService
+    @MiniScope(MiniScope.Scope.PROTOTYPE)
+    static class JsonParser implements Parser {
+    }
+
+    @MiniService
+    static class Importer {
+        final Parser parser;
+
+        Importer(JsonParser parser) {
+            this.parser = parser;
+        }
+    }
+
+    @MiniService
+    @MiniScope(value = MiniScope.Scope.POOLED, poolSize = 2)
+    static class ScratchBuffer {
+    }
+
+    @Test
+    void findsBeansBySuperclassAndInterface() {
+        BeanContainer container = containerWith(MemoryStore.class);
+
+        assertInstanceOf(MemoryStore.class, container.getBean(AbstractStore.class));
+        assertInstanceOf(MemoryStore.class, container.getBean(Store.class));
+        assertNull(container.getBean(Runnable.class));
+    }
+
+    @Test
+    void rejectsAmbiguousLookupsButListsAllBeansOfType() {
+        BeanContainer container = containerWith(MemoryStore.class, FileStore.class);
+
+        assertThrows(IllegalStateException.class, () -> container.getBean(Store.class));
+        List<Store> stores = container.getBeansOfType(Store.class);
+        assertEquals(List.of(FileStore.class, MemoryStore.class), stores.stream().map(Object::getClass).toList());
+    }
+
+    @Test
+    void listsBeansRegisteredAfterAnEarlierLookup() {
+        BeanContainer container = containerWith(MemoryStore.class);
+        assertEquals(1, container.getBeansOfType(Store.class).size());
+        int objects = container.getBeansOfType(Object.class).size();
+
+        container.registerBeans(new DependencyGraph(List.of(FileStore.class), container.getRegisteredBeanClasses())
+                .getCreationOrder());
+
+        List<Store> stores = container.getBeansOfType(Store.class);
+        assertEquals(List.of(MemoryStore.class, FileStore.class), stores.stream().map(Object::getClass).toList());
+        assertEquals(objects + 1, container.getBeansOfType(Object.class).size());
+    }
+
+    @Test
+    void createsPrototypesForEveryLookupAndInjection() {
+        BeanContainer container = containerWith(JsonParser.class, Importer.class);
+
+        Parser first = container.getBean(Parser.class);
+        Parser second = container.getBean(JsonParser.class);
+        assertInstanceOf(JsonParser.class, first);
+        assertNotSame(first, second);
+        assertNotSame(first, container.getBean(Importer.class).parser);
+    }
+
+    @Test
+    void lendsPooledBeansAndReportsPoolStats() {
+        BeanContainer container = containerWith(ScratchBuffer.class);
+
+        ScratchBuffer borrowed;
+        try (PooledBean<ScratchBuffer> buffer = container.borrowBean(ScratchBuffer.class)) {
+            borrowed = buffer.get();
+        }
+        try (PooledBean<ScratchBuffer> buffer = container.borrowBean(ScratchBuffer.class)) {
+            assertSame(borrowed, buffer.get());
+        }
+
+        assertThrows(IllegalStateException.class, () -> container.getBean(ScratchBuffer.class));
+        PoolStats stats = container.getPoolStats().get(ScratchBuffer.class);
+        assertEquals(2, stats.maxSize());
+        assertEquals(1, stats.created());
+        assertEquals(2, stats.hits());
+    }
+
+    static BeanContainer containerWith(Class<?>... beanClasses) {
+        BeanContainer container = new BeanContainer();
+        DependencyGraph graph = new DependencyGraph(List.of(beanClasses), container.getRegisteredBeanClasses());
+        container.registerBeans(graph.getCreationOrder());
+        return container;
+    }
+}
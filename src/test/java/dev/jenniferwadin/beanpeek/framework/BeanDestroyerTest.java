@@ -0,0 +1,134 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPreDestroy;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeanDestroyerTest {
+
+    static final List<String> DESTROYED = Collections.synchronizedList(new ArrayList<>());
+
+    interface Store {
+    }
+
+    @MiniService
+    static class Database implements Store {
+        @MiniPreDestroy
+        void close() {
+            DESTROYED.add("Database");
+        }
+    }
+
+    @MiniService
+    static class Repository {
+        Repository(Store store) {
+        }
+
+        @MiniPreDestroy
+        void flush() throws InterruptedException {
+            Thread.sleep(50);
+            DESTROYED.add("Repository");
+        }
+    }
+
+    @MiniService
+    static class OrderService {
+        OrderService(Repository repository) {
+        }
+    }
+
+    @MiniService
+    static class Cache {
+        @MiniPreDestroy
+        void clear() {
+            DESTROYED.add("Cache");
+        }
+    }
+
+    @Test
+    void destroysDependentsFirstAndIndependentBeansInParallel() {
+        DESTROYED.clear();
+        BeanContainer container = BeanContainerTest.containerWith(Database.class, Repository.class, OrderService.class, Cache.class);
+
+        ShutdownReport report = container.shutdown();
+
+        // Cache does not wait for the slow Repository; Database does, through its dependent
+        assertEquals(List.of("Cache", "Repository", "Database"), DESTROYED);
+        assertTrue(report.isClean());
+        assertEquals(List.of(), report.exceededBudget());
+        assertEquals(3, report.beans().size());
+        assertSame(report, container.shutdown());
+        assertEquals(3, DESTROYED.size());
+    }
+
+    static class Slow {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @MiniPreDestroy
+        void close() {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }
+    }
+
+    static class Failing {
+        @MiniPreDestroy
+        void close() {
+            throw new IllegalStateException("disk gone");
+        }
+    }
+
+    static class Dependent {
+        @MiniPreDestroy
+        void close() throws InterruptedException {
+            Thread.sleep(10_000);
+        }
+    }
+
+    @Test
+    void reportsBeansThatExceedTheirBudget() throws Exception {
+        Slow slow = new Slow();
+        Map<Class<?>, Object> instances = new LinkedHashMap<>();
+        instances.put(Slow.class, slow);
+        instances.put(Failing.class, new Failing());
+        BeanDestroyer destroyer = new BeanDestroyer(new StartupRecorder(), 100, 5_000);
+
+        ShutdownReport report = destroyer.destroy(instances, Map.of(Failing.class, List.of(Slow.class)));
+
+        assertEquals(List.of(Slow.class), report.exceededBudget());
+        assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+        Map<Class<?>, BeanShutdown.Status> statuses = new LinkedHashMap<>();
+        report.beans().forEach(bean -> statuses.put(bean.beanClass(), bean.status()));
+        assertEquals(Map.of(Failing.class, BeanShutdown.Status.FAILED, Slow.class, BeanShutdown.Status.TIMED_OUT), statuses);
+        assertTrue(report.totalNanos() < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void skipsBeansNotStartedByTheDeadline() {
+        Map<Class<?>, Object> instances = new LinkedHashMap<>();
+        instances.put(Slow.class, new Slow());
+        instances.put(Dependent.class, new Dependent());
+        BeanDestroyer destroyer = new BeanDestroyer(new StartupRecorder(), 5_000, 100);
+
+        ShutdownReport report = destroyer.destroy(instances, Map.of(Dependent.class, List.of(Slow.class)));
+
+        assertEquals(List.of(Dependent.class, Slow.class), report.exceededBudget());
+        assertEquals(BeanShutdown.Status.TIMED_OUT, report.beans().get(0).status());
+        assertEquals(BeanShutdown.Status.SKIPPED, report.beans().get(1).status());
+    }
+}
@@ -0,0 +1,98 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import dev.jenniferwadin.beanpeek.processor.MiniServiceIndexProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BeanPlanCacheTest {
+
+    private static final String PACKAGE = "dev.jenniferwadin.beanpeek.framework";
+
+    interface Store {
+    }
+
+    @MiniService
+    static class Database implements Store {
+    }
+
+    @MiniService
+    static class Repository {
+        Repository(Store store) {
+        }
+    }
+
+    static class NotABean {
+        NotABean(Database database) {
+        }
+    }
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheStoredCreationOrder() throws Exception {
+        BeanPlanCache cache = new BeanPlanCache(directory);
+        ClassLoader classLoader = getClass().getClassLoader();
+        List<BeanDefinition> plan = new DependencyGraph(List.of(Repository.class, Database.class), Set.of()).getCreationOrder();
+
+        assertNull(cache.load(PACKAGE, "CLASSPATH", Set.of(), classLoader));
+        cache.store(PACKAGE, "CLASSPATH", Set.of(), classLoader, plan);
+
+        assertEquals(plan, cache.load(PACKAGE, "CLASSPATH", Set.of(), classLoader));
+        assertNull(cache.load(PACKAGE, "DIRECTORY", Set.of(), classLoader));
+        assertNull(cache.load(PACKAGE, "CLASSPATH", Set.of(Database.class), classLoader));
+        assertNotEquals(BeanPlanCache.key(PACKAGE, "CLASSPATH", Set.of(), classLoader),
+                BeanPlanCache.key(PACKAGE + ".sub", "CLASSPATH", Set.of(), classLoader));
+    }
+
+    @Test
+    void discardsPlansThatNoLongerMatchTheClasses() throws Exception {
+        BeanPlanCache cache = new BeanPlanCache(directory);
+        ClassLoader classLoader = getClass().getClassLoader();
+        List<BeanDefinition> plan = List.of(new BeanDefinition(NotABean.class,
+                NotABean.class.getDeclaredConstructor(Database.class), List.of(Database.class)));
+        cache.store(PACKAGE, "CLASSPATH", Set.of(), classLoader, plan);
+        assertEquals(1, directory.toFile().list().length);
+
+        assertNull(cache.load(PACKAGE, "CLASSPATH", Set.of(), classLoader));
+        assertEquals(0, directory.toFile().list().length);
+    }
+
+    @Test
+    void keysOnlyThePackageAndTheIndexOfAClassDirectory() throws Exception {
+        Path classes = directory.resolve("classes");
+        Path bean = classes.resolve("com/example/app/Service.class");
+        Path other = classes.resolve("com/example/other/Helper.class");
+        Path index = classes.resolve(MiniServiceIndexProcessor.INDEX_LOCATION);
+        for (Path file : List.of(bean, other, index)) {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "v1");
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            String key = BeanPlanCache.key("com.example.app", "CLASSPATH", Set.of(), classLoader);
+
+            Files.writeString(other, "version 2");
+            assertEquals(key, BeanPlanCache.key("com.example.app", "CLASSPATH", Set.of(), classLoader));
+
+            Files.writeString(index, "version 2");
+            String changedIndex = BeanPlanCache.key("com.example.app", "CLASSPATH", Set.of(), classLoader);
+            assertNotEquals(key, changedIndex);
+
+            Files.writeString(bean, "version 2");
+            assertNotEquals(changedIndex, BeanPlanCache.key("com.example.app", "CLASSPATH", Set.of(), classLoader));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BeanPoolTest {
+
+    static class Buffer {
+        final StringBuilder content = new StringBuilder();
+    }
+
+    @Test
+    void handsTheSameInstanceBackToTheSameThread() {
+        BeanPool<Buffer> pool = new BeanPool<>(Buffer.class, 4, 100, Buffer::new);
+
+        Buffer first = pool.borrow();
+        pool.release(first);
+        Buffer second = pool.borrow();
+        pool.release(second);
+
+        assertSame(first, second);
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.created());
+        assertEquals(1, stats.idle());
+        assertEquals(2, stats.hits());
+        assertEquals(0, stats.misses());
+        assertTrue(stats.affinityHits() >= 1);
+    }
+
+    @Test
+    void timesOutWhenEveryInstanceIsInUse() {
+        BeanPool<Buffer> pool = new BeanPool<>(Buffer.class, 2, 20, Buffer::new);
+        pool.borrow();
+        pool.borrow();
+
+        assertThrows(IllegalStateException.class, pool::borrow);
+        PoolStats stats = pool.getStats();
+        assertEquals(2, stats.created());
+        assertEquals(2, stats.inUse());
+        assertEquals(1, stats.timeouts());
+        assertTrue(stats.maxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void neverSharesAnInstanceOrExceedsItsSize() throws Exception {
+        int threads = 8;
+        int size = 3;
+        AtomicInteger constructed = new AtomicInteger();
+        BeanPool<Buffer> pool = new BeanPool<>(Buffer.class, size, 5_000, () -> {
+            constructed.incrementAndGet();
+            return new Buffer();
+        });
+        Set<Buffer> inUse = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        Buffer buffer = pool.borrow();
+                        assertTrue(inUse.add(buffer), "instance handed out twice");
+                        buffer.content.setLength(0);
+                        assertTrue(inUse.remove(buffer));
+                        pool.release(buffer);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        PoolStats stats = pool.getStats();
+        assertTrue(constructed.get() <= size);
+        assertEquals(constructed.get(), stats.created());
+        assertEquals(stats.created(), stats.idle());
+        assertEquals(threads * 2_000L, stats.hits() + stats.misses());
+    }
+}
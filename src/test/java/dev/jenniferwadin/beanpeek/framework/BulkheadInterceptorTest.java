@@ -0,0 +1,113 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniBulkhead;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadInterceptorTest {
+
+    static class Inventory {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @MiniBulkhead(maxConcurrent = 2)
+        public int stock(String item) throws InterruptedException {
+            release.await();
+            return item.length();
+        }
+
+        @MiniBulkhead(maxConcurrent = 1, queueSize = 1, maxWaitMillis = 5_000)
+        public void reserve() throws InterruptedException {
+            release.await();
+        }
+    }
+
+    @Test
+    void rejectsCallsOverTheLimitOrWaitsInTheQueue() throws Exception {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Inventory target = new Inventory();
+        Inventory inventory = (Inventory) proxyFactory.createProxyIfNeeded(Inventory.class, target);
+
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> stock(inventory, "apple"), callers);
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> stock(inventory, "pear"), callers);
+        CompletableFuture<Void> reserved = CompletableFuture.runAsync(() -> reserve(inventory), callers);
+        Thread.sleep(50);
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> reserve(inventory), callers);
+        Thread.sleep(50);
+
+        assertThrows(RejectedExecutionException.class, () -> inventory.stock("plum"));
+        assertThrows(RejectedExecutionException.class, inventory::reserve);
+        BulkheadStats reserveStats = proxyFactory.getBulkheadInterceptor().getStats().get("Inventory.reserve");
+        assertEquals(1, reserveStats.inFlight());
+        assertEquals(1, reserveStats.waiting());
+
+        target.release.countDown();
+        assertEquals(5, first.get(5, TimeUnit.SECONDS));
+        assertEquals(4, second.get(5, TimeUnit.SECONDS));
+        reserved.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        callers.close();
+
+        BulkheadStats stockStats = proxyFactory.getBulkheadInterceptor().getStats().get("Inventory.stock");
+        assertEquals(new BulkheadStats(2, 0, 0, 2, 1, 0), stockStats);
+        assertEquals(new BulkheadStats(1, 0, 0, 2, 1, 0), proxyFactory.getBulkheadInterceptor().getStats().get("Inventory.reserve"));
+    }
+
+    @Test
+    void adaptsTheLimitToLatency() {
+        BulkheadLimiter limiter = new BulkheadLimiter("Service.call", 10, 0, 0, true, 1, 100);
+
+        runRounds(limiter, 20, TimeUnit.MILLISECONDS.toNanos(1), null);
+        int grown = limiter.stats().limit();
+        assertTrue(grown > 10, "limit after steady latency: " + grown);
+
+        runRounds(limiter, 20, TimeUnit.MILLISECONDS.toNanos(20), null);
+        int shrunk = limiter.stats().limit();
+        assertTrue(shrunk < grown, "limit after rising latency: " + shrunk);
+
+        runRounds(limiter, 5, TimeUnit.MILLISECONDS.toNanos(1), new IllegalStateException("down"));
+        assertEquals(1, limiter.stats().limit());
+        assertTrue(limiter.stats().failed() > 0);
+    }
+
+    /**
+     * Fills every permit, then releases them all as if each call took latencyNanos.
+     */
+    private static void runRounds(BulkheadLimiter limiter, int rounds, long latencyNanos, Throwable failure) {
+        for (int round = 0; round < rounds; round++) {
+            int permits = limiter.stats().limit();
+            for (int i = 0; i < permits; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < permits; i++) {
+                limiter.release(failure, System.nanoTime() - latencyNanos);
+            }
+        }
+    }
+
+    private static int stock(Inventory inventory, String item) {
+        try {
+            return inventory.stock(item);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void reserve(Inventory inventory) {
+        try {
+            inventory.reserve();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniCacheable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheInterceptorTest {
+
+    static class Prices {
+        final AtomicInteger lookups = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @MiniCacheable
+        public long price(String product, int quantity) {
+            lookups.incrementAndGet();
+            return product.length() * 100L * quantity;
+        }
+
+        @MiniCacheable
+        public String slow(String key) throws InterruptedException {
+            lookups.incrementAndGet();
+            release.await();
+            return key.toUpperCase();
+        }
+
+        @MiniCacheable(ttlMillis = 20)
+        public int expiring(int value) {
+            lookups.incrementAndGet();
+            return value;
+        }
+    }
+
+    @Test
+    void cachesResultsPerArgumentsAndInvalidates() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Prices target = new Prices();
+        Prices prices = (Prices) proxyFactory.createProxyIfNeeded(Prices.class, target);
+
+        assertEquals(500, prices.price("apple", 1));
+        assertEquals(500, prices.price("apple", 1));
+        assertEquals(1000, prices.price("apple", 2));
+        assertEquals(2, target.lookups.get());
+
+        CacheInterceptor caches = proxyFactory.getCacheInterceptor();
+        caches.invalidate("Prices.price", "apple", 1);
+        assertEquals(500, prices.price("apple", 1));
+        assertEquals(3, target.lookups.get());
+
+        CacheStats stats = caches.getStats().get("Prices.price");
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(3, stats.loads());
+        assertEquals(2, stats.size());
+        assertThrows(IllegalArgumentException.class, () -> caches.invalidateAll("Prices.unknown"));
+    }
+
+    static class Labels {
+        @MiniCacheable
+        public String describe(Object value) {
+            return "object " + value;
+        }
+
+        @MiniCacheable(maximumSize = 1)
+        public String describe(String value) {
+            return "string " + value;
+        }
+    }
+
+    @Test
+    void keepsOverloadsApart() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Labels labels = (Labels) proxyFactory.createProxyIfNeeded(Labels.class, new Labels());
+
+        assertEquals("string x", labels.describe("x"));
+        assertEquals("object x", labels.describe((Object) "x"));
+        assertEquals("string x", labels.describe("x"));
+
+        CacheInterceptor caches = proxyFactory.getCacheInterceptor();
+        String prefix = Labels.class.getName() + ".describe";
+        assertEquals(Set.of(prefix + "(Object)", prefix + "(String)"), caches.getStats().keySet());
+        assertEquals(1, caches.getStats().get(prefix + "(String)").hits());
+        caches.invalidateAll("Labels.describe");
+        assertEquals(0, caches.getStats().get(prefix + "(Object)").size());
+    }
+
+    @Test
+    void loadsOnceForConcurrentMisses() throws Exception {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Prices target = new Prices();
+        Prices prices = (Prices) proxyFactory.createProxyIfNeeded(Prices.class, target);
+
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return prices.slow("key");
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        Thread.sleep(50);
+        target.release.countDown();
+        for (CompletableFuture<String> call : calls) {
+            assertEquals("KEY", call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, target.lookups.get());
+    }
+
+    @Test
+    void expiresResultsAfterTheirTtl() throws Exception {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Prices target = new Prices();
+        Prices prices = (Prices) proxyFactory.createProxyIfNeeded(Prices.class, target);
+
+        assertEquals(7, prices.expiring(7));
+        assertEquals(7, prices.expiring(7));
+        assertEquals(1, target.lookups.get());
+        Thread.sleep(40);
+        assertEquals(7, prices.expiring(7));
+        assertEquals(2, target.lookups.get());
+    }
+
+    @Test
+    void keepsFrequentKeysWhenOneOffKeysPassThrough() throws Throwable {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, 0);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                int value = key;
+                cache.get(key, () -> value);
+            }
+        }
+        for (int key = 1_000; key < 3_000; key++) {
+            int value = key;
+            cache.get(key, () -> value);
+        }
+
+        AtomicInteger reloaded = new AtomicInteger();
+        for (int key = 0; key < 50; key++) {
+            int value = key;
+            cache.get(key, () -> {
+                reloaded.incrementAndGet();
+                return value;
+            });
+        }
+        CacheStats stats = cache.stats();
+        assertTrue(reloaded.get() < 5, "popular keys reloaded: " + reloaded.get());
+        assertEquals(100, stats.size());
+        assertTrue(stats.evictions() >= 1_900);
+    }
+}
@@ -0,0 +1,172 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPreDestroy;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChildContainerTest {
+
+    static final List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+
+    interface Named {
+    }
+
+    @MiniService
+    static class Database implements Named {
+        @MiniPreDestroy
+        void close() {
+            destroyed.add("Database");
+        }
+    }
+
+    @MiniService
+    static class TenantRepository implements Named {
+        final Database database;
+
+        TenantRepository(Database database) {
+            this.database = database;
+        }
+
+        @MiniPreDestroy
+        void close() {
+            destroyed.add("TenantRepository");
+        }
+    }
+
+    @MiniService
+    static class TenantService {
+        final TenantRepository repository;
+
+        TenantService(TenantRepository repository) {
+            this.repository = repository;
+        }
+
+        @MiniPreDestroy
+        void close() {
+            destroyed.add("TenantService");
+        }
+    }
+
+    @MiniService
+    static class Greeter {
+        final Database database;
+
+        Greeter() {
+            this.database = null;
+        }
+
+        Greeter(Database database) {
+            this.database = database;
+        }
+    }
+
+    @MiniService
+    static class StuckConnection {
+        @MiniPreDestroy
+        void close() throws InterruptedException {
+            Thread.sleep(10_000);
+        }
+    }
+
+    @Test
+    void resolvesMissingDependenciesFromTheParentAndCreatesOnlyItsOwnBeans() {
+        BeanContainer parent = BeanContainerTest.containerWith(Database.class);
+        BeanContainer first = parent.createChild();
+        List<BeanDefinition> tenantPlan = new DependencyGraph(List.of(TenantRepository.class, TenantService.class),
+                first.getRegisteredBeanClasses()).getCreationOrder();
+        assertEquals(2, tenantPlan.size());
+
+        first.registerBeans(tenantPlan);
+        BeanContainer second = parent.createChild();
+        second.registerBeans(tenantPlan);
+
+        Database database = parent.getBean(Database.class);
+        TenantService firstService = first.getBean(TenantService.class);
+        TenantService secondService = second.getBean(TenantService.class);
+        assertSame(database, first.getBean(Database.class));
+        assertSame(database, firstService.repository.database);
+        assertSame(database, secondService.repository.database);
+        assertNotSame(firstService, secondService);
+        assertNull(parent.getBean(TenantService.class));
+        assertEquals(2, first.getBeansOfType(Named.class).size());
+        assertEquals(1, parent.getBeansOfType(Named.class).size());
+        assertEquals(1, parent.getRegisteredBeanClasses().size());
+        assertEquals(3, first.getRegisteredBeanClasses().size());
+    }
+
+    @Test
+    void childCreatesAShadowingBeanWithItsOwnConstructor() throws Exception {
+        BeanContainer parent = BeanContainerTest.containerWith(Database.class);
+        parent.registerBean(new BeanDefinition(Greeter.class, Greeter.class.getDeclaredConstructor(), List.of()));
+        BeanContainer child = parent.createChild();
+        child.registerBean(new BeanDefinition(Greeter.class,
+                Greeter.class.getDeclaredConstructor(Database.class), List.of(Database.class)));
+
+        assertNull(parent.getBean(Greeter.class).database);
+        assertSame(parent.getBean(Database.class), child.getBean(Greeter.class).database);
+    }
+
+    @Test
+    void closingAChildDestroysOnlyItsOwnBeansInDependencyOrder() {
+        BeanContainer parent = BeanContainerTest.containerWith(Database.class);
+        BeanContainer closedChild = parent.createChild();
+        closedChild.registerBeans(new DependencyGraph(List.of(TenantRepository.class, TenantService.class),
+                closedChild.getRegisteredBeanClasses()).getCreationOrder());
+        BeanContainer openChild = parent.createChild();
+        openChild.tryRegisterBean(TenantRepository.class);
+
+        destroyed.clear();
+        ShutdownReport report = closedChild.shutdown();
+        assertEquals(List.of("TenantService", "TenantRepository"), destroyed);
+        assertEquals(2, report.beans().size());
+        assertSame(parent.getBean(Database.class), openChild.getBean(TenantRepository.class).database);
+
+        destroyed.clear();
+        parent.shutdown();
+        assertEquals(List.of("TenantRepository", "Database"), destroyed);
+        assertThrows(IllegalStateException.class, parent::createChild);
+    }
+
+    @Test
+    void closesChildrenInParallelWithinTheParentsDeadline(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("beanpeek.properties");
+        Files.writeString(file, "beanpeek.shutdown.timeout-millis=200\n");
+        System.setProperty(MiniConfiguration.CONFIG_FILE, file.toString());
+        try {
+            BeanContainer parent = new BeanContainer();
+            List<BeanContainer> tenants = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                BeanContainer tenant = parent.createChild();
+                tenant.tryRegisterBean(StuckConnection.class);
+                tenants.add(tenant);
+            }
+
+            long start = System.nanoTime();
+            parent.shutdown();
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // One after another, each tenant would take the whole 200 ms
+            assertTrue(millis < 5 * 200, "shutdown took " + millis + " ms");
+            for (BeanContainer tenant : tenants) {
+                assertEquals(List.of(StuckConnection.class), tenant.shutdown().exceededBudget());
+            }
+        } finally {
+            System.clearProperty(MiniConfiguration.CONFIG_FILE);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassPathScannerTest {
+
+    private static final String PACKAGE = "dev.jenniferwadin.beanpeek.miniservice";
+    private static final List<String> BEANS = List.of(
+            PACKAGE + ".GreetingMiniService",
+            PACKAGE + ".HelloMiniService",
+            PACKAGE + ".MathMiniServiceImpl");
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void readsClassLevelAnnotationFromBytecode() throws IOException {
+        assertTrue(ClassFileAnnotationReader.isAnnotatedWith(classBytes(DependencyGraphTest.Repository.class), MiniService.class));
+        assertFalse(ClassFileAnnotationReader.isAnnotatedWith(classBytes(ClassPathScanner.class), MiniService.class));
+    }
+
+    @Test
+    void findsBeansInDirectories() throws IOException {
+        ClassPathScanner scanner = new ClassPathScanner(getClass().getClassLoader());
+
+        assertEquals(BEANS, names(scanner.findAnnotatedClasses(PACKAGE, MiniService.class)));
+    }
+
+    @Test
+    void findsBeansInSubpackagesOfJars() throws IOException {
+        Path jar = workDir.resolve("beans.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String directory : List.of("dev/", "dev/jenniferwadin/", "dev/jenniferwadin/beanpeek/", "dev/jenniferwadin/beanpeek/miniservice/")) {
+                out.putNextEntry(new JarEntry(directory));
+            }
+            for (String className : List.of(BEANS.get(0), BEANS.get(1), PACKAGE + ".MathMiniService")) {
+                out.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+                copyClassFile(className, out);
+            }
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader())) {
+            ClassPathScanner scanner = new ClassPathScanner(loader);
+
+            assertEquals(BEANS.subList(0, 2), names(scanner.findAnnotatedClasses("dev.jenniferwadin", MiniService.class)));
+        }
+    }
+
+    private static byte[] classBytes(Class<?> clazz) throws IOException {
+        try (InputStream in = clazz.getResourceAsStream(clazz.getName().substring(clazz.getPackageName().length() + 1) + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void copyClassFile(String className, OutputStream out) throws IOException {
+        try (InputStream in = ClassPathScannerTest.class.getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class")) {
+            in.transferTo(out);
+        }
+    }
+
+    private static List<String> names(List<Class<?>> classes) {
+        return classes.stream().map(Class::getName).toList();
+    }
+}
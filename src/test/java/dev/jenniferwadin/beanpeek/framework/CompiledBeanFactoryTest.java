@@ -0,0 +1,81 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniConfigProperty;
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledBeanFactoryTest {
+
+    static class Greeter {
+        final List<String> events;
+
+        @MiniConfigProperty("welcome.message")
+        private String message;
+
+        Greeter(List<String> events) {
+            this.events = events;
+        }
+
+        @MiniPostConstruct
+        private void init() {
+            events.add("init " + message);
+        }
+
+        @MiniPostConstruct
+        void broken() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    static class Failing {
+        Failing() {
+            throw new IllegalArgumentException("no");
+        }
+    }
+
+    static class Unlinkable {
+        @MiniPostConstruct
+        void init() {
+            throw new LinkageError("missing class");
+        }
+    }
+
+    @Test
+    void createsInjectsAndInitializesEachInstance() throws Exception {
+        CompiledBeanFactory factory = CompiledBeanFactory.compile(
+                Greeter.class, Greeter.class.getDeclaredConstructor(List.class), new MiniConfiguration());
+        List<String> events = new ArrayList<>();
+
+        Greeter first = (Greeter) factory.create(new Object[]{events});
+        Greeter second = (Greeter) factory.create(new Object[]{events});
+
+        assertNotSame(first, second);
+        assertSame(events, first.events);
+        assertEquals("Hello from MiniConfig", first.message);
+        assertEquals(List.of("init Hello from MiniConfig", "init Hello from MiniConfig"), events);
+    }
+
+    @Test
+    void rethrowsConstructorExceptionsUnchanged() throws Exception {
+        CompiledBeanFactory factory = CompiledBeanFactory.compile(
+                Failing.class, Failing.class.getDeclaredConstructor(), new MiniConfiguration());
+
+        assertThrows(IllegalArgumentException.class, () -> factory.create(new Object[0]));
+    }
+
+    @Test
+    void logsPostConstructExceptionsButPropagatesErrors() throws Exception {
+        CompiledBeanFactory factory = CompiledBeanFactory.compile(
+                Unlinkable.class, Unlinkable.class.getDeclaredConstructor(), new MiniConfiguration());
+
+        assertThrows(LinkageError.class, () -> factory.create(new Object[0]));
+    }
+}
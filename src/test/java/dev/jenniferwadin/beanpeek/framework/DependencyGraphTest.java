@@ -0,0 +1,86 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGraphTest {
+
+    @MiniService
+    static class Repository {
+    }
+
+    @MiniService
+    static class Service {
+        Service(Repository repository) {
+        }
+    }
+
+    @MiniService
+    static class Controller {
+        Controller(Service service) {
+        }
+    }
+
+    @MiniService
+    static class CycleA {
+        CycleA(CycleB b) {
+        }
+    }
+
+    @MiniService
+    static class CycleB {
+        CycleB(CycleA a) {
+        }
+    }
+
+    @MiniService
+    static class NeedsCycle {
+        NeedsCycle(CycleA a) {
+        }
+    }
+
+    @MiniService
+    static class NeedsUnknown {
+        NeedsUnknown(String unknown) {
+        }
+    }
+
+    @Test
+    void ordersBeansAfterTheirDependencies() {
+        DependencyGraph graph = new DependencyGraph(List.of(Controller.class, Service.class, Repository.class), Set.of());
+
+        List<Class<?>> order = graph.getCreationOrder().stream().map(BeanDefinition::beanClass).toList();
+
+        assertEquals(List.of(Repository.class, Service.class, Controller.class), order);
+        assertFalse(graph.getDiagnostic().hasProblems());
+    }
+
+    @Test
+    void treatsRegisteredBeansAsSatisfied() {
+        DependencyGraph graph = new DependencyGraph(List.of(Service.class), Set.of(Repository.class));
+
+        assertEquals(1, graph.getCreationOrder().size());
+        assertEquals(List.of(Repository.class), graph.getCreationOrder().get(0).dependencies());
+    }
+
+    @Test
+    void reportsCyclesMissingAndBlockedBeansTogether() {
+        DependencyGraph graph = new DependencyGraph(
+                List.of(CycleA.class, CycleB.class, NeedsCycle.class, NeedsUnknown.class, Repository.class), Set.of());
+        DependencyDiagnostic diagnostic = graph.getDiagnostic();
+
+        assertEquals(List.of(Repository.class), graph.getCreationOrder().stream().map(BeanDefinition::beanClass).toList());
+        assertTrue(diagnostic.hasProblems());
+        assertEquals(1, diagnostic.getCycles().size());
+        assertEquals(Set.of(CycleA.class, CycleB.class), Set.copyOf(diagnostic.getCycles().get(0)));
+        assertEquals(CycleA.class, diagnostic.getBlocked().get(NeedsCycle.class));
+        assertTrue(diagnostic.getMissing().containsKey(NeedsUnknown.class));
+    }
+}
@@ -0,0 +1,52 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsStayWithinOnePercent() {
+        for (long value = 1; value < 1L << 36; value = value * 3 / 2 + 1) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            assertTrue(highest >= value, "bucket of " + value + " ends at " + highest);
+            assertTrue(highest - value <= value / 100 + 1, "bucket of " + value + " is too wide");
+        }
+    }
+
+    @Test
+    void reportsPercentilesOfRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1_000, snapshot.count());
+        assertEquals(500_500, snapshot.meanNanos(), 1);
+        assertEquals(500_000, snapshot.p50Nanos(), 5_000);
+        assertEquals(990_000, snapshot.p99Nanos(), 10_000);
+        assertEquals(999_000, snapshot.p999Nanos(), 10_000);
+        assertEquals(1_000_000, snapshot.maxNanos());
+    }
+
+    @Test
+    void intervalSnapshotsOnlyCoverNewValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5_000_000);
+        assertEquals(1, histogram.intervalSnapshot().count());
+
+        histogram.record(100);
+        histogram.record(200);
+        LatencySnapshot interval = histogram.intervalSnapshot();
+        assertEquals(2, interval.count());
+        assertEquals(200, interval.maxNanos(), 2);
+        assertEquals(3, histogram.snapshot().count());
+        assertEquals(5_000_000, histogram.snapshot().maxNanos());
+
+        histogram.reset();
+        assertEquals(LatencySnapshot.EMPTY, histogram.snapshot());
+    }
+}
@@ -0,0 +1,148 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
+import dev.jenniferwadin.beanpeek.annotation.MiniLazy;
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyBeanTest {
+
+    @MiniService
+    @MiniLazy
+    static class AdminClient {
+        static final AtomicInteger INITIALIZED = new AtomicInteger();
+
+        private byte[] buffer;
+
+        @MiniPostConstruct
+        void connect() {
+            buffer = new byte[64 * 1024];
+            INITIALIZED.incrementAndGet();
+        }
+
+        @LogExecutionTime
+        int bufferSize() {
+            return buffer.length;
+        }
+    }
+
+    @MiniService
+    static class AdminController {
+        final AdminClient client;
+
+        AdminController(AdminClient client) {
+            this.client = client;
+        }
+    }
+
+    @MiniService
+    @MiniLazy
+    static final class FinalClient {
+    }
+
+    @MiniService
+    static class Settings {
+    }
+
+    @MiniService
+    @MiniLazy
+    static class ReportClient {
+        static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+        private final Settings settings;
+
+        ReportClient(Settings settings) {
+            this.settings = Objects.requireNonNull(settings);
+            CONSTRUCTED.incrementAndGet();
+        }
+
+        Settings settings() {
+            return settings;
+        }
+    }
+
+    @Test
+    void createsLazyBeansOnFirstUseOnly() {
+        AdminClient.INITIALIZED.set(0);
+        BeanContainer container = BeanContainerTest.containerWith(AdminClient.class, AdminController.class);
+
+        AdminController controller = container.getBean(AdminController.class);
+        assertSame(container.getBean(AdminClient.class), controller.client);
+        assertEquals(0, AdminClient.INITIALIZED.get());
+        assertFalse(container.getLazyBeanReports().get(0).initialized());
+
+        assertEquals(64 * 1024, controller.client.bufferSize());
+        assertEquals(64 * 1024, controller.client.bufferSize());
+        assertEquals(1, AdminClient.INITIALIZED.get());
+
+        LazyBeanReport report = container.getLazyBeanReports().get(0);
+        assertEquals(AdminClient.class, report.beanClass());
+        assertTrue(report.initialized());
+        assertTrue(report.initNanos() > 0);
+        assertTrue(report.initBytes() == 0 || report.initBytes() >= 64 * 1024);
+    }
+
+    @Test
+    void initializesOnceWhenFirstUsedFromManyThreads() throws Exception {
+        AdminClient.INITIALIZED.set(0);
+        AdminClient client = BeanContainerTest.containerWith(AdminClient.class).getBean(AdminClient.class);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return client.bufferSize();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(64 * 1024, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, AdminClient.INITIALIZED.get());
+    }
+
+    @Test
+    void runsTheConstructorOnlyForTheRealBean() {
+        ReportClient.CONSTRUCTED.set(0);
+        BeanContainer container = BeanContainerTest.containerWith(Settings.class, ReportClient.class);
+
+        ReportClient client = container.getBean(ReportClient.class);
+        assertEquals(0, ReportClient.CONSTRUCTED.get());
+        assertEquals(1, container.getLazyBeanReports().size());
+
+        assertSame(container.getBean(Settings.class), client.settings());
+        assertEquals(1, ReportClient.CONSTRUCTED.get());
+    }
+
+    @Test
+    void createsFinalClassesEagerly() {
+        BeanContainer container = BeanContainerTest.containerWith(FinalClient.class);
+
+        assertInstanceOf(FinalClient.class, container.getBean(FinalClient.class));
+        assertTrue(container.getLazyBeanReports().isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniConfigProperty;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MiniConfigurationTest {
+
+    @MiniService
+    static class ConnectionPool {
+        @MiniConfigProperty("pool.size")
+        volatile int size;
+
+        @MiniConfigProperty("pool.timeout")
+        Supplier<Double> timeout;
+
+        @MiniConfigProperty("welcome.message")
+        String message;
+    }
+
+    @Test
+    void reloadSwapsInTheChangedValues(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("beanpeek.properties");
+        Files.writeString(file, "pool.size=4\nwelcome.message=Hi\n");
+
+        try (MiniConfiguration config = new MiniConfiguration(file)) {
+            Set<String> changed = ConcurrentHashMap.newKeySet();
+            config.addListener(changed::addAll);
+            ConfigValue<Integer> size = config.value("pool.size", Integer.class);
+            assertEquals(4, size.get());
+            assertEquals("Hi", config.get("welcome.message"));
+            assertEquals("beanpeek", config.get("application.name"));
+
+            Files.writeString(file, "pool.size=8\n");
+
+            config.reload();
+            assertEquals(Set.of("pool.size", "welcome.message"), changed);
+            assertEquals(8, size.get());
+            assertSame(size, config.value("pool.size", Integer.class));
+            assertEquals("Hello from MiniConfig", config.get("welcome.message"));
+            assertEquals(Set.of(), config.reload());
+
+            Files.writeString(file, "pool.size=many\n");
+            config.reload();
+            assertEquals("many", config.get("pool.size"));
+            assertEquals(8, size.get());
+        }
+    }
+
+    @Test
+    void watcherReloadsTheFileWhenItChanges(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("beanpeek.properties");
+        Files.writeString(file, "pool.size=4\n");
+
+        try (MiniConfiguration config = new MiniConfiguration(file)) {
+            config.start();
+            ConfigValue<Integer> size = config.value("pool.size", int.class);
+            Files.writeString(file, "pool.size=16\n");
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (size.get() != 16 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(16, size.get());
+        }
+    }
+
+    @Test
+    void removedKeysKeepThePreviousValueAndTheWatcherKeepsRunning(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("beanpeek.properties");
+        Files.writeString(file, "pool.size=4\npool.timeout=1.5\n");
+
+        try (MiniConfiguration config = new MiniConfiguration(file)) {
+            config.start();
+            ConfigValue<Double> timeout = config.value("pool.timeout", Double.class);
+            ConfigValue<Integer> size = config.value("pool.size", int.class);
+
+            Files.writeString(file, "pool.size=4\n");
+            config.reload();
+            assertFalse(config.contains("pool.timeout"));
+            assertEquals(1.5, timeout.get());
+
+            Files.delete(file);
+            config.reload();
+            assertEquals(4, size.get());
+
+            // The watcher went through the same failed conversions and still applies this change
+            Files.writeString(file, "pool.size=16\npool.timeout=2.5\n");
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (timeout.get() != 2.5 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2.5, timeout.get());
+            assertEquals(16, size.get());
+        }
+    }
+
+    @Test
+    void containerReinjectsChangedPropertiesIntoSingletons(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("beanpeek.properties");
+        Files.writeString(file, "pool.size=4\npool.timeout=1.5\n");
+        System.setProperty(MiniConfiguration.CONFIG_FILE, file.toString());
+        // Shutting the container down stops its config watcher
+        try (BeanContainer container = BeanContainerTest.containerWith(ConnectionPool.class)) {
+            ConnectionPool pool = container.getBean(ConnectionPool.class);
+            assertEquals(4, pool.size);
+            assertEquals(1.5, pool.timeout.get());
+
+            Files.writeString(file, "pool.size=12\npool.timeout=0.5\n");
+            container.reloadConfiguration();
+
+            assertEquals(12, pool.size);
+            assertEquals(0.5, pool.timeout.get());
+            assertEquals("Hello from MiniConfig", pool.message);
+        } finally {
+            System.clearProperty(MiniConfiguration.CONFIG_FILE);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import dev.jenniferwadin.beanpeek.annotation.MiniPreDestroy;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelBeanInitializerTest {
+
+    static final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    interface Part {
+    }
+
+    @MiniService
+    static class Engine implements Part {
+        @MiniPostConstruct
+        void warmUp() throws InterruptedException {
+            Thread.sleep(50);
+            events.add("Engine ready");
+        }
+    }
+
+    @MiniService
+    static class Wheels implements Part {
+        @MiniPostConstruct
+        void inflate() throws InterruptedException {
+            Thread.sleep(50);
+            events.add("Wheels ready");
+        }
+
+        @MiniPreDestroy
+        void deflate() {
+            events.add("Wheels destroyed");
+        }
+    }
+
+    @MiniService
+    static class Car implements Part {
+        final Engine engine;
+
+        Car(Engine engine) {
+            this.engine = engine;
+            events.add("Car constructed");
+        }
+    }
+
+    @MiniService
+    static class BrokenEngine {
+        BrokenEngine() {
+            throw new IllegalStateException("no fuel");
+        }
+    }
+
+    @MiniService
+    static class BrokenCar {
+        BrokenCar(BrokenEngine engine) {
+            events.add("BrokenCar constructed");
+        }
+    }
+
+    @BeforeEach
+    void enableParallelStartup(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("beanpeek.properties");
+        Files.writeString(file, "beanpeek.startup.parallel=true\nbeanpeek.startup.threads=4\n");
+        System.setProperty(MiniConfiguration.CONFIG_FILE, file.toString());
+        events.clear();
+    }
+
+    @AfterEach
+    void clearConfigFile() {
+        System.clearProperty(MiniConfiguration.CONFIG_FILE);
+    }
+
+    @Test
+    void createsAndRegistersBeansAfterTheirDependencies() {
+        List<BeanDefinition> order = new DependencyGraph(List.of(Car.class, Wheels.class, Engine.class), Set.of())
+                .getCreationOrder();
+
+        try (BeanContainer container = new BeanContainer()) {
+            container.registerBeans(order);
+
+            assertTrue(events.indexOf("Engine ready") < events.indexOf("Car constructed"), events.toString());
+            assertSame(container.getBean(Engine.class), container.getBean(Car.class).engine);
+            List<Class<?>> registered = container.getBeansOfType(Part.class).stream()
+                    .<Class<?>>map(Object::getClass)
+                    .toList();
+            assertEquals(Set.of(Car.class, Wheels.class, Engine.class), Set.copyOf(registered));
+            assertTrue(registered.indexOf(Engine.class) < registered.indexOf(Car.class), registered.toString());
+        }
+    }
+
+    @Test
+    void createsABeanOnceWhenTheSameClassesAreRegisteredConcurrently() throws Exception {
+        List<BeanDefinition> order = new DependencyGraph(List.of(Car.class, Wheels.class, Engine.class), Set.of())
+                .getCreationOrder();
+
+        try (BeanContainer container = new BeanContainer();
+             ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            List<Future<?>> scans = List.of(
+                    executor.submit(() -> container.registerBeans(order)),
+                    executor.submit(() -> container.registerBeans(order)));
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+
+            assertEquals(1, Collections.frequency(events, "Engine ready"), events.toString());
+            assertEquals(1, Collections.frequency(events, "Wheels ready"), events.toString());
+            assertEquals(1, Collections.frequency(events, "Car constructed"), events.toString());
+            assertSame(container.getBean(Engine.class), container.getBean(Car.class).engine);
+        }
+    }
+
+    @Test
+    void keepsTheBeansThatDoNotDependOnAFailedOne() {
+        List<BeanDefinition> order = new DependencyGraph(List.of(BrokenCar.class, BrokenEngine.class, Wheels.class),
+                Set.of()).getCreationOrder();
+
+        BeanContainer container = new BeanContainer();
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> container.registerBeans(order));
+        assertEquals("no fuel", failure.getMessage());
+
+        assertNotNull(container.getBean(Wheels.class));
+        assertNull(container.getBean(BrokenEngine.class));
+        assertNull(container.getBean(BrokenCar.class));
+        assertFalse(events.contains("BrokenCar constructed"), events.toString());
+
+        container.shutdown();
+        assertTrue(events.contains("Wheels destroyed"), events.toString());
+    }
+}
@@ -0,0 +1,188 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProxyFactoryTest {
+
+    interface Calculator {
+        int add(int a, int b);
+
+        void fail();
+
+        String name();
+    }
+
+    static class TimedCalculator implements Calculator {
+        @Override
+        @LogExecutionTime
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        @LogExecutionTime
+        public void fail() {
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public String name() {
+            return "calculator";
+        }
+    }
+
+    static class PlainCalculator implements Calculator {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public String name() {
+            return "plain";
+        }
+    }
+
+    static class Counter {
+        private long total;
+
+        Counter(String ignored) {
+        }
+
+        @LogExecutionTime
+        public long add(int amount, long weight, double factor) {
+            total += (long) (amount * weight * factor);
+            return total;
+        }
+
+        void reset() {
+            total = 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Counter " + total;
+        }
+    }
+
+    /**
+     * Records every intercepted call to add, before and after the rest of the chain.
+     */
+    static class RecordingInterceptor implements MethodInterceptor {
+        private static final MethodHandle BEFORE;
+        private static final MethodHandle AFTER;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                BEFORE = lookup.findVirtual(RecordingInterceptor.class, "before", MethodType.methodType(long.class));
+                AFTER = lookup.findVirtual(RecordingInterceptor.class, "after", MethodType.methodType(void.class, long.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public boolean appliesTo(Method method) {
+            return method.getName().equals("add");
+        }
+
+        @Override
+        public MethodHandle intercept(Method method, MethodHandle next) {
+            return MethodHandleChains.around(next, BEFORE.bindTo(this), AFTER.bindTo(this));
+        }
+
+        long before() {
+            calls.add("before");
+            return calls.size();
+        }
+
+        void after(long token) {
+            calls.add("after " + token);
+        }
+    }
+
+    @Test
+    void runsInterceptorChainAroundTypedCalls() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        RecordingInterceptor recorder = new RecordingInterceptor();
+        proxyFactory.addInterceptor(recorder);
+
+        Calculator proxy = (Calculator) proxyFactory.createProxyIfNeeded(TimedCalculator.class, new TimedCalculator());
+
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        assertEquals(5, proxy.add(2, 3));
+        assertEquals("calculator", proxy.name());
+        assertEquals(List.of("before", "after 1"), recorder.calls);
+        assertThrows(IllegalStateException.class, proxy::fail);
+    }
+
+    @Test
+    void recordsExecutionTimesOfTimedMethods() {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        Calculator proxy = (Calculator) proxyFactory.createProxyIfNeeded(TimedCalculator.class, new TimedCalculator());
+
+        proxy.add(1, 2);
+        proxy.add(3, 4);
+        assertThrows(IllegalStateException.class, proxy::fail);
+        proxy.name();
+
+        Map<String, LatencySnapshot> snapshots = proxyFactory.getTimingInterceptor().getSnapshots();
+        assertEquals(List.of("TimedCalculator.add", "TimedCalculator.fail"), List.copyOf(snapshots.keySet()));
+        assertEquals(2, snapshots.get("TimedCalculator.add").count());
+        assertEquals(1, snapshots.get("TimedCalculator.fail").count());
+    }
+
+    @Test
+    void createsClassBasedProxyForBeansWithoutInterfaces() {
+        Counter target = new Counter("target");
+        Object proxy = new ProxyFactory().createProxyIfNeeded(Counter.class, target);
+
+        Counter counter = assertInstanceOf(Counter.class, proxy);
+        assertNotSame(target, counter);
+        assertTrue(counter.getClass().isHidden());
+        assertEquals(6, counter.add(1, 2, 3.0));
+        assertEquals("Counter 6", counter.toString());
+        counter.reset();
+        assertEquals("Counter 0", target.toString());
+    }
+
+    @Test
+    void createsClassBasedProxyInClassMode() {
+        Object proxy = new ProxyFactory(ProxyFactory.ProxyMode.CLASS).createProxyIfNeeded(TimedCalculator.class, new TimedCalculator());
+
+        TimedCalculator calculator = assertInstanceOf(TimedCalculator.class, proxy);
+        assertEquals(5, calculator.add(2, 3));
+        assertThrows(IllegalStateException.class, calculator::fail);
+    }
+
+    @Test
+    void returnsTargetWhenNoInterceptorApplies() {
+        PlainCalculator target = new PlainCalculator();
+
+        assertSame(target, new ProxyFactory().createProxyIfNeeded(PlainCalculator.class, target));
+    }
+}
@@ -0,0 +1,92 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.MiniPostConstruct;
+import dev.jenniferwadin.beanpeek.annotation.MiniService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupRecorderTest {
+
+    @MiniService
+    static class Clock {
+    }
+
+    @MiniService
+    static class Database {
+        Database(Clock clock) {
+        }
+
+        @MiniPostConstruct
+        void connect() throws InterruptedException {
+            Thread.sleep(50);
+        }
+    }
+
+    @MiniService
+    static class Repository {
+        Repository(Database database) {
+        }
+    }
+
+    @MiniService
+    static class Metrics {
+        Metrics(Clock clock) {
+        }
+    }
+
+    @Test
+    void ranksBeansByTheirSlowestDependencyChain() {
+        BeanContainer container = BeanContainerTest.containerWith(Clock.class, Database.class, Repository.class, Metrics.class);
+
+        StartupReport report = container.getStartupReport();
+
+        assertEquals(List.of(Clock.class, Database.class, Repository.class), report.criticalPath());
+        assertEquals(List.of(Repository.class, Database.class),
+                report.beans().stream().limit(2).map(BeanStartupTiming::beanClass).toList());
+        assertTrue(report.criticalPathNanos() >= Duration.ofMillis(50).toNanos());
+
+        BeanStartupTiming database = report.beans().get(1);
+        assertEquals(List.of(Clock.class), database.dependencies());
+        assertTrue(database.phaseNanos().get(StartupPhase.POST_CONSTRUCT) >= Duration.ofMillis(50).toNanos());
+        assertTrue(database.onCriticalPath());
+        BeanStartupTiming metrics = report.beans().stream().filter(bean -> bean.beanClass() == Metrics.class).findFirst().orElseThrow();
+        assertFalse(metrics.onCriticalPath());
+    }
+
+    @Test
+    void emitsFlightRecorderEventsPerPhase(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("startup.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("beanpeek.Instantiate");
+            recording.enable("beanpeek.PostConstruct");
+            recording.start();
+            BeanContainerTest.containerWith(Clock.class, Database.class);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Set<String> instantiated = Set.copyOf(events.stream()
+                .filter(event -> event.getEventType().getName().equals("beanpeek.Instantiate"))
+                .map(event -> event.getClass("beanClass").getName())
+                .toList());
+        assertEquals(Set.of(Clock.class.getName(), Database.class.getName()), instantiated);
+        RecordedEvent connect = events.stream()
+                .filter(event -> event.getEventType().getName().equals("beanpeek.PostConstruct"))
+                .filter(event -> event.getClass("beanClass").getName().equals(Database.class.getName()))
+                .findFirst().orElseThrow();
+        assertTrue(connect.getDuration().toMillis() >= 50);
+    }
+}
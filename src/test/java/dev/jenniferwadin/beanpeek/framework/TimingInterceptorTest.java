@@ -0,0 +1,69 @@
+package dev.jenniferwadin.beanpeek.framework;
+
+import dev.jenniferwadin.beanpeek.annotation.LogExecutionTime;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingInterceptorTest {
+
+    static class Parser {
+        @LogExecutionTime(includeArguments = true)
+        public int parse(String input, int radix) {
+            return Integer.parseInt(input, radix);
+        }
+
+        @LogExecutionTime(slowThresholdMillis = 60_000)
+        public long checksum(long value) {
+            return value * 31;
+        }
+
+        @LogExecutionTime(sampleRate = 0.0)
+        public void reset() {
+        }
+
+        @LogExecutionTime(sampleRate = 0.0)
+        public void reset(int value) {
+        }
+    }
+
+    @Test
+    void recordsEveryCallButLogsOnlySelectedOnes() {
+        TimingInterceptor timing = new TimingInterceptor();
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addInterceptor(timing);
+        Parser parser = (Parser) proxyFactory.createProxyIfNeeded(Parser.class, new Parser());
+
+        assertEquals(255, parser.parse("ff", 16));
+        assertEquals(31, parser.checksum(1));
+        parser.reset();
+        parser.reset(1);
+        parser.reset(2);
+        timing.close();
+
+        Map<String, LatencySnapshot> snapshots = timing.getSnapshots();
+        assertEquals(1, snapshots.get("Parser.parse").count());
+        assertEquals(1, snapshots.get("Parser.checksum").count());
+        String prefix = Parser.class.getName() + ".reset";
+        assertEquals(1, snapshots.get(prefix + "()").count());
+        assertEquals(2, snapshots.get(prefix + "(int)").count());
+        assertEquals(0, timing.getDroppedLogEvents());
+    }
+
+    @Test
+    void dropsEventsInsteadOfBlockingWhenTheBufferIsFull() {
+        AsyncTimingLog timingLog = new AsyncTimingLog(4);
+        int events = 100_000;
+        int queued = 0;
+        for (int i = 0; i < events; i++) {
+            if (timingLog.offer("Parser.parse", i, null)) queued++;
+        }
+        timingLog.close();
+
+        assertTrue(timingLog.getDroppedEvents() > 0);
+        assertEquals(events, queued + timingLog.getDroppedEvents());
+    }
+}
@@ -0,0 +1,63 @@
+package dev.jenniferwadin.beanpeek.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MiniServiceIndexProcessorTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void writesOneLinePerMiniServiceClass() throws IOException {
+        Path sources = Files.createDirectories(workDir.resolve("src/com/example"));
+        Path output = Files.createDirectories(workDir.resolve("classes"));
+
+        Files.writeString(sources.resolve("Repository.java"), """
+                package com.example;
+                @dev.jenniferwadin.beanpeek.annotation.MiniService
+                public class Repository {
+                }
+                """);
+        Files.writeString(sources.resolve("Service.java"), """
+                package com.example;
+                @dev.jenniferwadin.beanpeek.annotation.MiniService
+                public class Service {
+                    public Service(Repository repository, int[] sizes) {
+                    }
+                    public Service(java.util.List<String> names) {
+                    }
+                }
+                """);
+        Files.writeString(sources.resolve("NotABean.java"), """
+                package com.example;
+                public class NotABean {
+                }
+                """);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null,
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", MiniServiceIndexProcessor.class.getName(),
+                "-d", output.toString(),
+                sources.resolve("Repository.java").toString(),
+                sources.resolve("Service.java").toString(),
+                sources.resolve("NotABean.java").toString());
+
+        assertEquals(0, result);
+        List<String> index = Files.readAllLines(output.resolve(MiniServiceIndexProcessor.INDEX_LOCATION));
+        assertEquals(List.of(
+                "# Generated by MiniServiceIndexProcessor",
+                "com.example.Repository",
+                "com.example.Service"), index);
+    }
+}